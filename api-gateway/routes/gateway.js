@@ -32,6 +32,8 @@ router.get('/health', (req, res) => {
 const userServiceProxy = createProxyMiddleware({
     target: process.env.USER_SERVICE_URL || 'http://localhost:8080',
     changeOrigin: true,
+    // Sends X-Forwarded-For so the user service limits logins per client rather than per gateway
+    xfwd: true,
     pathRewrite: {
         '^/api/users': '/api/users'
     },
@@ -193,10 +195,10 @@ router.get('/api/dashboard', auth.authenticate, async (req, res) => {
 
         const dashboard = {};
 
-        // Get user profile
+        // Get user profile: the caller's own, including email and phone, which /api/users/:userId omits
         try {
             const userResponse = await axios.get(
-                `${process.env.USER_SERVICE_URL}/api/users/${userId}`,
+                `${process.env.USER_SERVICE_URL}/api/users/profile`,
                 {
                     headers: { Authorization: req.headers.authorization },
                     timeout: 5000
@@ -0,0 +1,102 @@
+package com.ecommerce.userservice.benchmark;
+
+import com.ecommerce.userservice.config.JwtSigningProperties;
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.service.JwtKeyManager;
+import com.ecommerce.userservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for the token hot path. "cached" methods hit the verified-claims cache with a
+ * single token; "uncached" methods run against a service whose cache holds nothing, so
+ * every call pays for signature verification and payload decoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-64-bytes-long-for-hs512-use";
+
+    @Param({"HS256", "RS256", "ES256"})
+    public String algorithm;
+
+    @Param({"0", "4", "16"})
+    public int claimCount;
+
+    private JwtService cachedService;
+    private JwtService uncachedService;
+    private User user;
+    private Map<String, Object> claims;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAlgorithm(algorithm);
+        JwtKeyManager keyManager = new JwtKeyManager();
+        ReflectionTestUtils.setField(keyManager, "secret", SECRET);
+        ReflectionTestUtils.setField(keyManager, "properties", properties);
+        ReflectionTestUtils.invokeMethod(keyManager, "init");
+
+        cachedService = newJwtService(keyManager, 10_000);
+        uncachedService = newJwtService(keyManager, 0);
+
+        user = new User("benchmark", "benchmark@example.com", "password", "Bench", "Mark");
+        user.setId(42L);
+        claims = new HashMap<>();
+        for (int i = 0; i < claimCount; i++) {
+            claims.put("claim" + i, "value-" + i);
+        }
+        token = cachedService.generateToken(user, claims);
+    }
+
+    private static JwtService newJwtService(JwtKeyManager keyManager, long cacheSize) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "keyManager", keyManager);
+        ReflectionTestUtils.setField(service, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(service, "claimsCacheMaxSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedService.generateToken(user, claims);
+    }
+
+    @Benchmark
+    public Boolean validateTokenCached() {
+        return cachedService.validateToken(token);
+    }
+
+    @Benchmark
+    public Boolean validateTokenUncached() {
+        return uncachedService.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUsernameCached() {
+        return cachedService.extractUsername(token);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        return uncachedService.extractUsername(token);
+    }
+
+    @Benchmark
+    public Object extractClaimUncached() {
+        return uncachedService.extractClaim(token, (Claims c) -> c.get("claim0"));
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.userservice.benchmark;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Same benchmarks as {@link JwtServiceBenchmark}, with several threads sharing one
+ * JwtService to expose contention on the claims cache and key material.
+ */
+@Threads(4)
+public class JwtServiceContendedBenchmark extends JwtServiceBenchmark {
+}
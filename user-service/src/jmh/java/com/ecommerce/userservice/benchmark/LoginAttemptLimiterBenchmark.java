@@ -0,0 +1,58 @@
+package com.ecommerce.userservice.benchmark;
+
+import com.ecommerce.userservice.service.LoginAttemptLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the login limiter adds to a legitimate login: both buckets checked, then the username
+ * token handed back on success. Shared (Redis) limiting is off, as it is by default. The address
+ * bucket runs dry after its burst, so steady state times its refusal branch, which does the same
+ * lookup and refill arithmetic as an accepted attempt minus the CAS.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoginAttemptLimiterBenchmark {
+
+    private LoginAttemptLimiter limiter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = new LoginAttemptLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "usernameCapacity", 5);
+        ReflectionTestUtils.setField(limiter, "usernameRefillMillis", 60_000L);
+        ReflectionTestUtils.setField(limiter, "addressCapacity", 30);
+        ReflectionTestUtils.setField(limiter, "addressRefillMillis", 2_000L);
+        ReflectionTestUtils.setField(limiter, "maxTrackedKeys", 100_000);
+        ReflectionTestUtils.setField(limiter, "tickMillis", 1_000L);
+        ReflectionTestUtils.invokeMethod(limiter, "init");
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        String username;
+        String address;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            long id = Thread.currentThread().getId();
+            username = "user-" + id;
+            address = "10.0.0." + (id % 250);
+        }
+    }
+
+    @Benchmark
+    public long successfulLogin(Client client) {
+        long wait = limiter.tryAcquire(client.username, client.address);
+        limiter.onSuccess(client.username);
+        return wait;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool plus one read-only pool per
+ * replica when app.datasource.replicas.enabled is set. Without it nothing changes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties primaryProperties,
+                                                             ReplicaDataSourceProperties properties,
+                                                             ReadYourWritesTracker readYourWritesTracker,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.getUrls().size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(properties.getUrls().get(i).trim());
+            replica.setUsername(properties.getUsername() != null ? properties.getUsername() : primaryProperties.determineUsername());
+            replica.setPassword(properties.getPassword() != null ? properties.getPassword() : primaryProperties.determinePassword());
+            replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesTracker, meterRegistry.getIfAvailable());
+    }
+
+    // Defers taking a connection until the first statement, by which time the read-only flag is set
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaDataSourceProperties properties,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, properties.getMaxLag(), meterRegistry.getIfAvailable());
+    }
+}
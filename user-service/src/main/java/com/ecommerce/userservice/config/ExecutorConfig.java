@@ -0,0 +1,101 @@
+package com.ecommerce.userservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${jwt.introspection.batch.threads:0}")
+    private int introspectionThreads;
+
+    @Value("${app.password-hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${app.password-hashing.queue-capacity:100}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.import.threads:0}")
+    private int importThreads;
+
+    @Bean(name = "tokenIntrospectionExecutor")
+    public ThreadPoolTaskExecutor tokenIntrospectionExecutor() {
+        // Introspection is CPU-bound (signature checks), so size to the cores unless overridden
+        int threads = introspectionThreads > 0 ? introspectionThreads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(10_000);
+        executor.setThreadNamePrefix("token-introspect-");
+        // A saturated pool pushes work back onto the request thread rather than failing the batch
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "passwordHashingExecutor")
+    public ThreadPoolTaskExecutor passwordHashingExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
+        // Password hashing is CPU-bound; more threads than cores only adds context switching
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(hashingQueueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        Counter rejected = registry != null ? registry.counter("password.hashing.rejected") : null;
+        // A full queue fails fast so callers can shed load instead of tying up request threads
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            throw new RejectedExecutionException("Password hashing queue is full");
+        });
+        if (registry != null) {
+            Timer waitTimer = registry.timer("password.hashing.wait");
+            executor.setTaskDecorator(task -> {
+                long queuedAt = System.nanoTime();
+                return () -> {
+                    waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    task.run();
+                };
+            });
+        }
+        executor.initialize();
+
+        if (registry != null) {
+            new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "passwordHashing", List.of()).bindTo(registry);
+        }
+        return executor;
+    }
+
+    @Bean(name = "userImportExecutor")
+    public ThreadPoolTaskExecutor userImportExecutor() {
+        // Kept apart from the login pool so a running import never delays interactive hashing
+        int threads = importThreads > 0 ? importThreads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setThreadNamePrefix("user-import-");
+        // The importer bounds its own in-flight batches; overflow runs on the reading thread
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
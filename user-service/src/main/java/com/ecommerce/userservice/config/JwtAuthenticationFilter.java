@@ -0,0 +1,68 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.dto.AuthView;
+import com.ecommerce.userservice.service.JwtService;
+import com.ecommerce.userservice.service.UserService;
+import com.ecommerce.userservice.service.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests carrying a valid bearer token from its embedded claims. Invalid or
+ * missing tokens leave the request anonymous, so public endpoints keep working and protected
+ * ones are refused by the authorization rules. On admin endpoints the role and enabled flag
+ * are taken from the stored user instead, so a demoted or disabled admin loses access at once
+ * rather than when the token expires.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String ADMIN_PATH_PREFIX = "/api/admin";
+
+    private final JwtService jwtService;
+    private final UserService userService;
+
+    public JwtAuthenticationFilter(JwtService jwtService, UserService userService) {
+        this.jwtService = jwtService;
+        this.userService = userService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                VerifiedToken token = jwtService.verify(header.substring(BEARER_PREFIX.length()));
+                // Tokens issued before roles were embedded carry no role claim
+                String role = token.role() != null ? token.role() : "USER";
+                if (request.getRequestURI().startsWith(ADMIN_PATH_PREFIX)) {
+                    AuthView user = userService.findCurrentAuthView(token.subject()).orElse(null);
+                    if (user == null || !user.enabled()) {
+                        filterChain.doFilter(request, response);
+                        return;
+                    }
+                    role = user.role().name();
+                }
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        token.subject(), null, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (JwtException | IllegalArgumentException e) {
+                SecurityContextHolder.clearContext();
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
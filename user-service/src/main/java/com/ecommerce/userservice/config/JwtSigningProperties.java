@@ -0,0 +1,114 @@
+package com.ecommerce.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "jwt.signing")
+public class JwtSigningProperties {
+
+    // HS256 keeps using jwt.secret; RS*/ES* sign with the ACTIVE entry in keys
+    private String algorithm = "HS256";
+
+    // Keep verifying kid-less HS256 tokens issued before switching to asymmetric signing
+    private boolean acceptLegacyHmac = true;
+
+    private Duration jwksMaxAge = Duration.ofMinutes(15);
+
+    private List<KeyProperties> keys = new ArrayList<>();
+
+    public enum KeyStatus {
+        // Published in the JWKS ahead of activation so verifiers can pre-fetch it
+        NEXT,
+        // Signs new tokens
+        ACTIVE,
+        // No longer signs, still verifies tokens issued before the rotation
+        RETIRING
+    }
+
+    public static class KeyProperties {
+
+        private String kid;
+        private KeyStatus status = KeyStatus.ACTIVE;
+        private String algorithm;
+        private String privateKey;
+        private String publicKey;
+
+        public String getKid() {
+            return kid;
+        }
+
+        public void setKid(String kid) {
+            this.kid = kid;
+        }
+
+        public KeyStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(KeyStatus status) {
+            this.status = status;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public String getPrivateKey() {
+            return privateKey;
+        }
+
+        public void setPrivateKey(String privateKey) {
+            this.privateKey = privateKey;
+        }
+
+        public String getPublicKey() {
+            return publicKey;
+        }
+
+        public void setPublicKey(String publicKey) {
+            this.publicKey = publicKey;
+        }
+    }
+
+    // Getters and Setters
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public boolean isAcceptLegacyHmac() {
+        return acceptLegacyHmac;
+    }
+
+    public void setAcceptLegacyHmac(boolean acceptLegacyHmac) {
+        this.acceptLegacyHmac = acceptLegacyHmac;
+    }
+
+    public Duration getJwksMaxAge() {
+        return jwksMaxAge;
+    }
+
+    public void setJwksMaxAge(Duration jwksMaxAge) {
+        this.jwksMaxAge = jwksMaxAge;
+    }
+
+    public List<KeyProperties> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<KeyProperties> keys) {
+        this.keys = keys;
+    }
+}
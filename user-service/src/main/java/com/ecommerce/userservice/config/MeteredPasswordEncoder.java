@@ -0,0 +1,44 @@
+package com.ecommerce.userservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Records how long each encode and matches call takes, so hash cost can be tracked
+ * separately from the time requests spend queued for the hashing pool.
+ */
+public class MeteredPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public MeteredPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Boolean matches = matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        return Boolean.TRUE.equals(matches);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hashing.duration")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,144 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.config.PasswordHashingProperties.Algorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Builds the password encoder, picking cost parameters that fit the configured per-hash latency
+ * budget on the CPU the service is running on. Each algorithm is probed at a cheap setting and
+ * the result extrapolated (BCrypt doubles per strength step, Argon2 and PBKDF2 scale linearly
+ * with iterations). Parameters never drop below current OWASP minimums, whatever the budget.
+ */
+public class PasswordHashCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashCalibrator.class);
+
+    static final String BCRYPT = "bcrypt";
+    static final String ARGON2 = "argon2";
+    static final String PBKDF2 = "pbkdf2-sha256";
+
+    private static final int BCRYPT_PROBE_STRENGTH = 6;
+    private static final int BCRYPT_MIN_STRENGTH = 10;
+    private static final int BCRYPT_MAX_STRENGTH = 31;
+    private static final int ARGON2_MIN_ITERATIONS = 2;
+    private static final int PBKDF2_PROBE_ITERATIONS = 10_000;
+    private static final int PBKDF2_MIN_ITERATIONS = 600_000;
+
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+
+    private static final String PROBE_PASSWORD = "calibration-Pa55word";
+
+    private static final Pattern UNPREFIXED_BCRYPT = Pattern.compile("\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    private final PasswordHashingProperties properties;
+
+    public PasswordHashCalibrator(PasswordHashingProperties properties) {
+        this.properties = properties;
+    }
+
+    public PasswordEncoder build() {
+        Algorithm algorithm = properties.getAlgorithm();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(
+                algorithm == Algorithm.BCRYPT ? bcryptStrength() : BCRYPT_MIN_STRENGTH);
+        Argon2PasswordEncoder argon2 = argon2(
+                algorithm == Algorithm.ARGON2 ? argon2Iterations() : ARGON2_MIN_ITERATIONS);
+        Pbkdf2Sha256PasswordEncoder pbkdf2 = new Pbkdf2Sha256PasswordEncoder(
+                algorithm == Algorithm.PBKDF2 ? pbkdf2Iterations() : PBKDF2_MIN_ITERATIONS);
+
+        String idForEncode = switch (algorithm) {
+            case BCRYPT -> BCRYPT;
+            case ARGON2 -> ARGON2;
+            case PBKDF2 -> PBKDF2;
+        };
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode,
+                Map.of(BCRYPT, bcrypt, ARGON2, argon2, PBKDF2, pbkdf2));
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    // Whether an already encoded password (e.g. from a migration) is verifiable by the encoder built here
+    public static boolean isSupportedHash(String encodedPassword) {
+        return UNPREFIXED_BCRYPT.matcher(encodedPassword).matches()
+                || Stream.of(BCRYPT, ARGON2, PBKDF2).anyMatch(id -> encodedPassword.startsWith("{" + id + "}"));
+    }
+
+    int bcryptStrength() {
+        if (properties.getBcryptStrength() > 0) {
+            return properties.getBcryptStrength();
+        }
+        long probe = measure(new BCryptPasswordEncoder(BCRYPT_PROBE_STRENGTH));
+        int strength = BCRYPT_PROBE_STRENGTH;
+        while (strength < BCRYPT_MAX_STRENGTH && probe << (strength + 1 - BCRYPT_PROBE_STRENGTH) <= budgetNanos()) {
+            strength++;
+        }
+        return report("BCrypt strength", strength, BCRYPT_MIN_STRENGTH,
+                probe << (Math.max(strength, BCRYPT_MIN_STRENGTH) - BCRYPT_PROBE_STRENGTH));
+    }
+
+    int argon2Iterations() {
+        if (properties.getArgon2Iterations() > 0) {
+            return properties.getArgon2Iterations();
+        }
+        long probe = measure(argon2(1));
+        int iterations = (int) Math.min(Integer.MAX_VALUE, budgetNanos() / Math.max(probe, 1));
+        return report("Argon2 iterations", iterations, ARGON2_MIN_ITERATIONS,
+                probe * Math.max(iterations, ARGON2_MIN_ITERATIONS));
+    }
+
+    int pbkdf2Iterations() {
+        if (properties.getPbkdf2Iterations() > 0) {
+            return properties.getPbkdf2Iterations();
+        }
+        long probe = measure(new Pbkdf2Sha256PasswordEncoder(PBKDF2_PROBE_ITERATIONS));
+        long steps = budgetNanos() / Math.max(probe, 1);
+        int iterations = (int) Math.min(Integer.MAX_VALUE, steps * PBKDF2_PROBE_ITERATIONS);
+        int chosen = Math.max(iterations, PBKDF2_MIN_ITERATIONS);
+        return report("PBKDF2 iterations", iterations, PBKDF2_MIN_ITERATIONS,
+                probe * chosen / PBKDF2_PROBE_ITERATIONS);
+    }
+
+    private int report(String parameter, int calibrated, int minimum, long expectedNanos) {
+        int chosen = Math.max(calibrated, minimum);
+        if (calibrated < minimum) {
+            log.warn("Password hash budget {} is below the minimum safe cost on this CPU; using {} {}",
+                    properties.getTargetLatency(), parameter, chosen);
+        }
+        log.info("Calibrated {} {} (about {} ms per hash, budget {})",
+                parameter, chosen, expectedNanos / 1_000_000, properties.getTargetLatency());
+        return chosen;
+    }
+
+    private Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH,
+                properties.getArgon2Parallelism(), properties.getArgon2MemoryKib(), iterations);
+    }
+
+    // Median of several runs after one warm-up, so JIT compilation and outliers do not skew it
+    private long measure(PasswordEncoder encoder) {
+        encoder.encode(PROBE_PASSWORD);
+        long[] samples = new long[Math.max(1, properties.getCalibrationSamples())];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            encoder.encode(PROBE_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    private long budgetNanos() {
+        return properties.getTargetLatency().toNanos();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.password-encoder")
+public class PasswordHashingProperties {
+
+    public enum Algorithm {
+        BCRYPT, ARGON2, PBKDF2
+    }
+
+    // Algorithm for new hashes; hashes from the other algorithms keep verifying and are upgraded on login
+    private Algorithm algorithm = Algorithm.BCRYPT;
+
+    // Cost parameters left at 0 are calibrated at startup so one hash takes about this long
+    private Duration targetLatency = Duration.ofMillis(250);
+
+    private int calibrationSamples = 5;
+
+    private int bcryptStrength;
+
+    private int argon2Iterations;
+
+    private int argon2MemoryKib = 19456;
+
+    private int argon2Parallelism = 1;
+
+    private int pbkdf2Iterations;
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public Duration getTargetLatency() {
+        return targetLatency;
+    }
+
+    public void setTargetLatency(Duration targetLatency) {
+        this.targetLatency = targetLatency;
+    }
+
+    public int getCalibrationSamples() {
+        return calibrationSamples;
+    }
+
+    public void setCalibrationSamples(int calibrationSamples) {
+        this.calibrationSamples = calibrationSamples;
+    }
+
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+
+    public int getArgon2Iterations() {
+        return argon2Iterations;
+    }
+
+    public void setArgon2Iterations(int argon2Iterations) {
+        this.argon2Iterations = argon2Iterations;
+    }
+
+    public int getArgon2MemoryKib() {
+        return argon2MemoryKib;
+    }
+
+    public void setArgon2MemoryKib(int argon2MemoryKib) {
+        this.argon2MemoryKib = argon2MemoryKib;
+    }
+
+    public int getArgon2Parallelism() {
+        return argon2Parallelism;
+    }
+
+    public void setArgon2Parallelism(int argon2Parallelism) {
+        this.argon2Parallelism = argon2Parallelism;
+    }
+
+    public int getPbkdf2Iterations() {
+        return pbkdf2Iterations;
+    }
+
+    public void setPbkdf2Iterations(int pbkdf2Iterations) {
+        this.pbkdf2Iterations = pbkdf2Iterations;
+    }
+}
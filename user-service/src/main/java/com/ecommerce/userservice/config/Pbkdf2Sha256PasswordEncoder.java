@@ -0,0 +1,74 @@
+package com.ecommerce.userservice.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA256 stored as "iterations$salt$hash". Unlike Spring's Pbkdf2PasswordEncoder the
+ * iteration count travels with the hash, so recalibrating on other hardware never invalidates
+ * existing passwords and lower counts can be detected for upgrade.
+ */
+public class Pbkdf2Sha256PasswordEncoder implements PasswordEncoder {
+
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+
+    public Pbkdf2Sha256PasswordEncoder(int iterations) {
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return iterations + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(derive(rawPassword, salt, iterations));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        String[] parts = encodedPassword == null ? new String[0] : encodedPassword.split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            return MessageDigest.isEqual(expected, derive(rawPassword, salt, Integer.parseInt(parts[0])));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int separator = encodedPassword == null ? -1 : encodedPassword.indexOf('$');
+        try {
+            return separator > 0 && Integer.parseInt(encodedPassword.substring(0, separator)) < iterations;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static byte[] derive(CharSequence rawPassword, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toString().toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.userservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which users wrote recently, so that ReplicaRoutingDataSource keeps their reads on
+ * the primary until replicas have had time to apply the change.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private static final int MAX_TRACKED_USERS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(ReplicaDataSourceProperties properties) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getReadYourWritesWindow())
+                .maximumSize(MAX_TRACKED_USERS)
+                .build();
+    }
+
+    public void recordWrite(String username) {
+        if (username != null) {
+            recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    public boolean isRecentWriter(String username) {
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+}
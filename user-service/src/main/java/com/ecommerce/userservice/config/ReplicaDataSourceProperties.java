@@ -0,0 +1,86 @@
+package com.ecommerce.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled;
+
+    private List<String> urls = new ArrayList<>();
+
+    // Credentials default to spring.datasource's
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    // Replicas further behind than this stop receiving reads until they catch up
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // After a user's own write, their reads stay on the primary for this long
+    private Duration readYourWritesWindow = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getUrls() {
+        return urls;
+    }
+
+    public void setUrls(List<String> urls) {
+        this.urls = urls;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public Duration getReadYourWritesWindow() {
+        return readYourWritesWindow;
+    }
+
+    public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+}
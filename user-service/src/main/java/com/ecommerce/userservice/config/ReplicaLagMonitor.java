@@ -0,0 +1,81 @@
+package com.ecommerce.userservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how far each replica is behind and tells the routing data source which ones may
+ * serve reads. A replica that has replayed everything it received counts as caught up even if
+ * the primary has been idle, otherwise lag is the age of the last replayed transaction.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, -1)
+                   END::bigint
+            """;
+
+    private static final int QUERY_TIMEOUT_SECONDS = 2;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final Duration maxLag;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> lagMillis = new LinkedHashMap<>();
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, Duration maxLag, MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.maxLag = maxLag;
+        routingDataSource.getReplicas().forEach((name, dataSource) -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            replicas.put(name, jdbcTemplate);
+            AtomicLong lag = new AtomicLong(-1);
+            lagMillis.put(name, lag);
+            if (meterRegistry != null) {
+                // -1 while the replica is unreachable
+                Gauge.builder("datasource.replica.lag", lag, AtomicLong::get)
+                        .tag("replica", name).baseUnit("milliseconds").register(meterRegistry);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.lag-check-interval-ms:1000}")
+    public void check() {
+        replicas.forEach((name, jdbcTemplate) -> {
+            long lag;
+            try {
+                Long measured = jdbcTemplate.queryForObject(LAG_QUERY, Long.class);
+                lag = measured != null ? measured : -1;
+            } catch (DataAccessException e) {
+                log.debug("Lag check on replica {} failed: {}", name, e.getMessage());
+                lag = -1;
+            }
+            lagMillis.get(name).set(lag);
+
+            boolean caughtUp = lag >= 0 && lag <= maxLag.toMillis();
+            if (routingDataSource.setEligible(name, caughtUp)) {
+                if (caughtUp) {
+                    log.info("Replica {} is {} ms behind, routing reads to it", name, lag);
+                } else {
+                    log.warn("Replica {} is {}, routing its reads to the primary", name,
+                            lag < 0 ? "unreachable" : lag + " ms behind");
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.userservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions round-robin to replicas that are within the lag bound, and
+ * everything else to the primary. Must sit behind a LazyConnectionDataSourceProxy so the
+ * connection is chosen after the transaction's read-only flag is known. A replica only receives
+ * reads once ReplicaLagMonitor has seen it caught up, and reads by a user who just wrote stay
+ * on the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Set<String> eligible = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ReadYourWritesTracker readYourWrites, MeterRegistry meterRegistry) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.replicaKeys = List.copyOf(replicas.keySet());
+        this.readYourWrites = readYourWrites;
+        this.primaryReads = meterRegistry != null ? meterRegistry.counter("datasource.routing.reads", "target", "primary") : null;
+        this.replicaReads = meterRegistry != null ? meterRegistry.counter("datasource.routing.reads", "target", "replica") : null;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    // Returns whether the replica's eligibility changed
+    public boolean setEligible(String replica, boolean caughtUp) {
+        return caughtUp ? eligible.add(replica) : eligible.remove(replica);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (!replicaKeys.isEmpty() && !readYourWrites.isRecentWriter(currentUsername())) {
+            int count = replicaKeys.size();
+            int start = Math.floorMod(next.getAndIncrement(), count);
+            for (int i = 0; i < count; i++) {
+                String replica = replicaKeys.get((start + i) % count);
+                if (eligible.contains(replica)) {
+                    increment(replicaReads);
+                    return replica;
+                }
+            }
+        }
+        increment(primaryReads);
+        return PRIMARY;
+    }
+
+    // Closes the replica pools; the primary is a bean of its own
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.userservice.controller;
+
+import com.ecommerce.userservice.dto.UserImportReportDto;
+import com.ecommerce.userservice.dto.UserSearchCriteria;
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserImportCheckpoint;
+import com.ecommerce.userservice.repository.UserImportCheckpointRepository;
+import com.ecommerce.userservice.service.UserDirectoryService;
+import com.ecommerce.userservice.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserImportCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+
+    @Value("${app.admin.user-listing.max-page-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Lists users oldest first. With limit the response is one page, and its nextCursor is passed
+     * back as cursor for the next; without limit every match is streamed, for exports. q matches
+     * a prefix of the username or email. Runs on the request thread, so long exports are not cut
+     * off by the async request timeout.
+     */
+    @GetMapping("/users")
+    public void listUsers(@RequestParam(required = false) String role,
+                          @RequestParam(required = false) Boolean enabled,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+                          @RequestParam(required = false) String q,
+                          @RequestParam(required = false) String cursor,
+                          @RequestParam(required = false) Integer limit,
+                          HttpServletResponse response) throws IOException {
+        if (limit != null && (limit < 1 || limit > maxPageSize)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxPageSize);
+        }
+        User.Role userRole = null;
+        if (role != null && !role.isBlank()) {
+            try {
+                userRole = User.Role.valueOf(role.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown role: " + role);
+            }
+        }
+        UserSearchCriteria criteria = new UserSearchCriteria(userRole, enabled, createdFrom, createdTo,
+                q == null || q.isBlank() ? null : q.trim(), null, null, limit);
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                criteria = criteria.after(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        userDirectoryService.writeUsers(criteria, response.getOutputStream());
+    }
+
+    // Streams the request body, so the upload is never buffered; format is csv or jsonl
+    @PostMapping("/users/import")
+    public ResponseEntity<UserImportReportDto> importUsers(@RequestParam String jobId,
+                                                           @RequestParam(defaultValue = "csv") String format,
+                                                           HttpServletRequest request) throws IOException {
+        UserImportService.Format importFormat;
+        try {
+            importFormat = UserImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported import format: " + format);
+        }
+        return ResponseEntity.ok(userImportService.importUsers(jobId, importFormat, request.getInputStream()));
+    }
+
+    @GetMapping("/users/import/{jobId}")
+    public ResponseEntity<UserImportCheckpoint> getImportStatus(@PathVariable String jobId) {
+        return checkpointRepository.findById(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.userservice.controller;
+
+import com.ecommerce.userservice.config.JwtSigningProperties;
+import com.ecommerce.userservice.service.JwtKeyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@CrossOrigin(origins = "*")
+public class JwksController {
+
+    @Autowired
+    private JwtKeyManager keyManager;
+
+    @Autowired
+    private JwtSigningProperties signingProperties;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = "application/jwk-set+json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(signingProperties.getJwksMaxAge()).cachePublic())
+                .body(keyManager.getJwks());
+    }
+}
@@ -2,17 +2,44 @@ package com.ecommerce.userservice.controller;
 
 import com.ecommerce.userservice.dto.AuthResponseDto;
 import com.ecommerce.userservice.dto.LoginRequestDto;
+import com.ecommerce.userservice.dto.ProfileView;
+import com.ecommerce.userservice.dto.PublicUserView;
+import com.ecommerce.userservice.dto.RefreshTokenRequestDto;
+import com.ecommerce.userservice.dto.TokenIntrospectionDto;
 import com.ecommerce.userservice.dto.UserRegistrationDto;
-import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.dto.UserVersion;
+import com.ecommerce.userservice.service.LoginThrottledException;
+import com.ecommerce.userservice.service.UserAvailabilityService;
 import com.ecommerce.userservice.service.UserService;
+import com.ecommerce.userservice.util.BoundedInputStream;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/users")
@@ -22,97 +49,256 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${jwt.introspection.batch.max-tokens:1000}")
+    private int maxBatchTokens;
+
+    @Value("${jwt.introspection.batch.max-token-length:8192}")
+    private int maxBatchTokenLength;
+
+    @Value("${jwt.introspection.batch.max-payload-bytes:2097152}")
+    private long maxBatchPayloadBytes;
+
+    @Value("${app.password-hashing.retry-after-seconds:1}")
+    private int hashingRetryAfterSeconds;
+
     @PostMapping("/register")
-    public ResponseEntity<AuthResponseDto> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
+    public CompletableFuture<ResponseEntity<AuthResponseDto>> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
         try {
-            AuthResponseDto response = userService.registerUser(registrationDto);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (RuntimeException e) {
-            throw new RuntimeException("Registration failed: " + e.getMessage());
+            return userService.registerUserAsync(registrationDto).handle((response, e) -> {
+                if (e != null) {
+                    throw new RuntimeException("Registration failed: " + rootCause(e).getMessage());
+                }
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(hashingOverloaded());
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDto> loginUser(@Valid @RequestBody LoginRequestDto loginRequest) {
+    public CompletableFuture<ResponseEntity<AuthResponseDto>> loginUser(@Valid @RequestBody LoginRequestDto loginRequest,
+                                                                      HttpServletRequest request) {
         try {
-            AuthResponseDto response = userService.loginUser(loginRequest);
+            return userService.loginUserAsync(loginRequest, request.getRemoteAddr()).handle((response, e) -> {
+                if (e != null) {
+                    throw new RuntimeException("Login failed: " + rootCause(e).getMessage());
+                }
+                return ResponseEntity.ok(response);
+            });
+        } catch (LoginThrottledException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(hashingOverloaded());
+        }
+    }
+
+    // The hashing queue is full: shed the request rather than hold a worker thread
+    private <T> ResponseEntity<T> hashingOverloaded() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(hashingRetryAfterSeconds))
+                .build();
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<Map<String, Boolean>> checkAvailability(@RequestParam(required = false) String username,
+                                                                  @RequestParam(required = false) String email) {
+        if ((username == null || username.isBlank()) && (email == null || email.isBlank())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "username or email is required");
+        }
+        Map<String, Boolean> response = new HashMap<>();
+        if (username != null && !username.isBlank()) {
+            response.put("username", userAvailabilityService.isUsernameAvailable(username));
+        }
+        if (email != null && !email.isBlank()) {
+            response.put("email", userAvailabilityService.isEmailAvailable(email));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/token/refresh")
+    public ResponseEntity<AuthResponseDto> refreshToken(@Valid @RequestBody RefreshTokenRequestDto refreshRequest) {
+        try {
+            AuthResponseDto response = userService.refreshToken(refreshRequest.getRefreshToken());
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
-            throw new RuntimeException("Login failed: " + e.getMessage());
+            throw new RuntimeException("Token refresh failed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/token/refresh/revoke")
+    public ResponseEntity<Void> revokeRefreshToken(@Valid @RequestBody RefreshTokenRequestDto refreshRequest) {
+        try {
+            userService.revokeRefreshToken(refreshRequest.getRefreshToken());
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Refresh token revocation failed: " + e.getMessage());
         }
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<User> getUserProfile(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<ProfileView> getUserProfile(@RequestHeader("Authorization") String token,
+                                                      WebRequest webRequest) {
         try {
             String jwtToken = token.replace("Bearer ", "");
             String username = userService.getUsernameFromToken(jwtToken);
-            User user = userService.getUserByUsername(username);
-            
-            // Don't return password
-            user.setPassword(null);
-            
-            return ResponseEntity.ok(user);
+            if (notModified(webRequest, userService.getVersionByUsername(username))) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(userService.getProfile(username));
         } catch (Exception e) {
             throw new RuntimeException("Failed to get user profile: " + e.getMessage());
         }
     }
 
     @PutMapping("/profile")
-    public ResponseEntity<User> updateUserProfile(
+    public ResponseEntity<ProfileView> updateUserProfile(
             @RequestHeader("Authorization") String token,
             @Valid @RequestBody UserRegistrationDto updateDto) {
         try {
             String jwtToken = token.replace("Bearer ", "");
             String username = userService.getUsernameFromToken(jwtToken);
-            User user = userService.getUserByUsername(username);
-            
-            User updatedUser = userService.updateUserProfile(user.getId(), updateDto);
-            updatedUser.setPassword(null);
-            
-            return ResponseEntity.ok(updatedUser);
+            Long userId = userService.getAuthView(username).id();
+
+            return ResponseEntity.ok(ProfileView.from(userService.updateUserProfile(userId, updateDto)));
         } catch (Exception e) {
             throw new RuntimeException("Failed to update user profile: " + e.getMessage());
         }
     }
 
     @GetMapping("/validate")
-    public ResponseEntity<Map<String, Object>> validateToken(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<TokenIntrospectionDto> validateToken(@RequestHeader("Authorization") String token) {
         try {
             String jwtToken = token.replace("Bearer ", "");
-            boolean isValid = userService.validateToken(jwtToken);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("valid", isValid);
-            
-            if (isValid) {
-                String username = userService.getUsernameFromToken(jwtToken);
-                User user = userService.getUserByUsername(username);
-                response.put("userId", user.getId());
-                response.put("username", user.getUsername());
-                response.put("role", user.getRole().name());
-            }
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(userService.introspectToken(jwtToken));
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("valid", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(TokenIntrospectionDto.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/validate/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> validateTokens(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxBatchPayloadBytes) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Batch payload exceeds " + maxBatchPayloadBytes + " bytes");
+        }
+
+        // Content-Length is only a declaration; chunked bodies have none, so the stream itself is capped
+        List<String> tokens;
+        try {
+            tokens = readBatchTokens(new BoundedInputStream(request.getInputStream(), maxBatchPayloadBytes));
+        } catch (BoundedInputStream.LimitExceededException e) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Batch payload exceeds " + maxBatchPayloadBytes + " bytes");
+        }
+        List<CompletableFuture<List<TokenIntrospectionDto>>> chunks = userService.introspectTokens(tokens);
+
+        // Results are written in request order as soon as each chunk completes
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                for (CompletableFuture<List<TokenIntrospectionDto>> chunk : chunks) {
+                    for (TokenIntrospectionDto result : chunk.join()) {
+                        generator.writeObject(result);
+                    }
+                    generator.flush();
+                }
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Reads {"tokens": [...]} incrementally so oversized batches are rejected before they are buffered
+    private List<String> readBatchTokens(InputStream inputStream) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expected a JSON object with a tokens array");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!"tokens".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (value != JsonToken.START_ARRAY) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "tokens must be an array");
+                }
+                while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                    if (tokens.size() == maxBatchTokens) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                                "Batch exceeds " + maxBatchTokens + " tokens");
+                    }
+                    if (parser.getTextLength() > maxBatchTokenLength) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                                "Token exceeds " + maxBatchTokenLength + " characters");
+                    }
+                    tokens.add(parser.getText().replace("Bearer ", ""));
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "tokens must contain only strings");
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed batch request: " + e.getOriginalMessage());
+        }
+
+        if (tokens.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "tokens must not be empty");
+        }
+        return tokens;
+    }
+
+    @PostMapping("/token/revoke")
+    public ResponseEntity<Void> revokeToken(@RequestHeader("Authorization") String token) {
+        try {
+            String jwtToken = token.replace("Bearer ", "");
+            userService.revokeToken(jwtToken);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Token revocation failed: " + e.getMessage());
         }
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<User> getUserById(@PathVariable Long userId) {
+    public ResponseEntity<PublicUserView> getUserById(@PathVariable Long userId, WebRequest webRequest) {
         try {
-            User user = userService.getUserById(userId);
-            user.setPassword(null);
-            return ResponseEntity.ok(user);
+            if (notModified(webRequest, userService.getVersion(userId))) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(userService.getPublicUser(userId));
         } catch (RuntimeException e) {
             throw new RuntimeException("User not found: " + e.getMessage());
         }
     }
 
+    // Sets ETag and Last-Modified, and a 304 status when the client's copy is current. The body is
+    // read after the version, so a save in between only costs the client one more full response.
+    private static boolean notModified(WebRequest webRequest, UserVersion version) {
+        return webRequest.checkNotModified(version.etag(), version.lastModifiedMillis());
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> healthCheck() {
         Map<String, String> response = new HashMap<>();
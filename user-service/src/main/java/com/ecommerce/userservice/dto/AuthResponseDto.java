@@ -13,6 +13,7 @@ public class AuthResponseDto {
     private String lastName;
     private String role;
     private LocalDateTime expiresAt;
+    private String refreshToken;
 
     // Constructors
     public AuthResponseDto() {}
@@ -101,4 +102,12 @@ public class AuthResponseDto {
     public void setExpiresAt(LocalDateTime expiresAt) {
         this.expiresAt = expiresAt;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.ecommerce.userservice.dto;
+
+import com.ecommerce.userservice.model.User;
+
+/**
+ * The columns token checks act on. Read with a constructor expression, so no entity, password
+ * hash or dirty-checking snapshot is loaded.
+ */
+public record AuthView(Long id, String username, User.Role role, boolean enabled) {
+}
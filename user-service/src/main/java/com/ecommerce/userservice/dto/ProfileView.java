@@ -0,0 +1,17 @@
+package com.ecommerce.userservice.dto;
+
+import com.ecommerce.userservice.model.User;
+
+import java.time.LocalDateTime;
+
+// What a user sees of their own account; everything but the password hash and account flags
+public record ProfileView(Long id, String username, String email, String firstName, String lastName,
+                          String phoneNumber, LocalDateTime dateOfBirth, User.Role role, boolean enabled,
+                          LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    public static ProfileView from(User user) {
+        return new ProfileView(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(),
+                user.getLastName(), user.getPhoneNumber(), user.getDateOfBirth(), user.getRole(),
+                user.isEnabled(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.userservice.dto;
+
+import com.ecommerce.userservice.model.User;
+
+import java.time.LocalDateTime;
+
+// What other users and services may look up by id: no contact details
+public record PublicUserView(Long id, String username, String firstName, String lastName, User.Role role,
+                             LocalDateTime createdAt) {
+}
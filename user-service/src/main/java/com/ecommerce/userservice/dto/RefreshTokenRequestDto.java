@@ -0,0 +1,25 @@
+package com.ecommerce.userservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class RefreshTokenRequestDto {
+
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+
+    // Constructors
+    public RefreshTokenRequestDto() {}
+
+    public RefreshTokenRequestDto(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // Getters and Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospectionDto {
+
+    private boolean valid;
+    private Long userId;
+    private String username;
+    private String role;
+    private String error;
+
+    // Constructors
+    public TokenIntrospectionDto() {}
+
+    public TokenIntrospectionDto(boolean valid, Long userId, String username, String role) {
+        this.valid = valid;
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+    }
+
+    public static TokenIntrospectionDto active(Long userId, String username, String role) {
+        return new TokenIntrospectionDto(true, userId, username, role);
+    }
+
+    public static TokenIntrospectionDto inactive() {
+        return new TokenIntrospectionDto(false, null, null, null);
+    }
+
+    public static TokenIntrospectionDto error(String error) {
+        TokenIntrospectionDto dto = inactive();
+        dto.setError(error);
+        return dto;
+    }
+
+    // Getters and Setters
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
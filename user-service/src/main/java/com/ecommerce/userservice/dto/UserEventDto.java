@@ -0,0 +1,100 @@
+package com.ecommerce.userservice.dto;
+
+import com.ecommerce.userservice.model.User;
+
+import java.time.LocalDateTime;
+
+public class UserEventDto {
+
+    public enum Type {
+        USER_REGISTERED, USER_UPDATED
+    }
+
+    private Type type;
+    private Long userId;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String role;
+    private LocalDateTime occurredAt;
+
+    // Constructors
+    public UserEventDto() {}
+
+    public UserEventDto(Type type, User user) {
+        this.type = type;
+        this.userId = user.getId();
+        this.username = user.getUsername();
+        this.email = user.getEmail();
+        this.firstName = user.getFirstName();
+        this.lastName = user.getLastName();
+        this.role = user.getRole().name();
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ecommerce.userservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserImportReportDto {
+
+    private String jobId;
+    private long resumedAfterRow;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private boolean completed;
+    private List<RejectedRow> rejects = new ArrayList<>();
+
+    public static class RejectedRow {
+
+        private long row;
+        private String reason;
+
+        // Constructors
+        public RejectedRow() {}
+
+        public RejectedRow(long row, String reason) {
+            this.row = row;
+            this.reason = reason;
+        }
+
+        // Getters and Setters
+        public long getRow() {
+            return row;
+        }
+
+        public void setRow(long row) {
+            this.row = row;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+
+    // Constructors
+    public UserImportReportDto() {}
+
+    public UserImportReportDto(String jobId) {
+        this.jobId = jobId;
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public long getResumedAfterRow() {
+        return resumedAfterRow;
+    }
+
+    public void setResumedAfterRow(long resumedAfterRow) {
+        this.resumedAfterRow = resumedAfterRow;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public List<RejectedRow> getRejects() {
+        return rejects;
+    }
+
+    public void setRejects(List<RejectedRow> rejects) {
+        this.rejects = rejects;
+    }
+}
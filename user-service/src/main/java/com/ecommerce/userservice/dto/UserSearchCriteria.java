@@ -0,0 +1,38 @@
+package com.ecommerce.userservice.dto;
+
+import com.ecommerce.userservice.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Filters for the admin user listing. Every field is optional. Results are ordered by
+ * (createdAt, id); afterCreatedAt and afterId hold the position of the last row already seen,
+ * handed to clients as an opaque cursor, and limit is null for an unbounded export.
+ */
+public record UserSearchCriteria(User.Role role, Boolean enabled, LocalDateTime createdFrom,
+                                 LocalDateTime createdTo, String prefix, LocalDateTime afterCreatedAt,
+                                 Long afterId, Integer limit) {
+
+    public static String encodeCursor(LocalDateTime createdAt, long id) {
+        String position = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException for anything encodeCursor could not have produced
+    public UserSearchCriteria after(String cursor) {
+        String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = position.lastIndexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new UserSearchCriteria(role, enabled, createdFrom, createdTo, prefix,
+                    LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)), limit);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
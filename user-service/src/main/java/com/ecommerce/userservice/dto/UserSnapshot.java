@@ -0,0 +1,60 @@
+package com.ecommerce.userservice.dto;
+
+import com.ecommerce.userservice.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a user as held by the user cache, locally and in Redis. The password hash is
+ * deliberately left out, so a snapshot can never authenticate anyone or be saved back over the
+ * stored hash.
+ */
+public record UserSnapshot(Long id, String username, String email, String firstName, String lastName,
+                           String phoneNumber, LocalDateTime dateOfBirth, User.Role role, boolean enabled,
+                           boolean accountNonExpired, boolean accountNonLocked, boolean credentialsNonExpired,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    public static UserSnapshot from(User user) {
+        return new UserSnapshot(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(),
+                user.getLastName(), user.getPhoneNumber(), user.getDateOfBirth(), user.getRole(), user.isEnabled(),
+                user.isAccountNonExpired(), user.isAccountNonLocked(), user.isCredentialsNonExpired(),
+                user.getCreatedAt(), user.getUpdatedAt());
+    }
+
+    // A new detached User on every call, without password, for read-only callers of the User API
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setPhoneNumber(phoneNumber);
+        user.setDateOfBirth(dateOfBirth);
+        user.setRole(role);
+        user.setEnabled(enabled);
+        user.setAccountNonExpired(accountNonExpired);
+        user.setAccountNonLocked(accountNonLocked);
+        user.setCredentialsNonExpired(credentialsNonExpired);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        return user;
+    }
+
+    public AuthView toAuthView() {
+        return new AuthView(id, username, role, enabled);
+    }
+
+    public ProfileView toProfileView() {
+        return new ProfileView(id, username, email, firstName, lastName, phoneNumber, dateOfBirth, role, enabled,
+                createdAt, updatedAt);
+    }
+
+    public UserVersion toVersion() {
+        return new UserVersion(id, updatedAt != null ? updatedAt : createdAt);
+    }
+
+    public PublicUserView toPublicView() {
+        return new PublicUserView(id, username, firstName, lastName, role, createdAt);
+    }
+}
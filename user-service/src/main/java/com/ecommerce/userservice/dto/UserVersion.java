@@ -0,0 +1,21 @@
+package com.ecommerce.userservice.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+// Which state of a user row a response was built from; enough to answer a conditional GET
+public record UserVersion(Long id, LocalDateTime updatedAt) {
+
+    // Strong validator: a new one on every save, as updatedAt is set by the entity's @PreUpdate
+    public String etag() {
+        long micros = ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), updatedAt);
+        return "\"" + id + "-" + Long.toHexString(micros) + "\"";
+    }
+
+    // updatedAt is written in the server's zone
+    public long lastModifiedMillis() {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -4,30 +4,46 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.List;
 
 @Entity
 @Table(name = "users")
+// Second-level cache regions, sized and expired in hibernate-cache.conf
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
 public class User implements UserDetails {
 
+    public static final String CACHE_REGION = "users";
+    public static final String NATURAL_ID_CACHE_REGION = "users-by-username";
+
+    // Case-insensitive unique indexes from db/migration, named so registration can tell which field collided
+    public static final String USERNAME_CONSTRAINT = "uk_users_username_ci";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email_ci";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotBlank(message = "Username is required")
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
-    @Column(unique = true, nullable = false)
+    @NaturalId
+    @Column(nullable = false)
     private String username;
 
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
 
     @NotBlank(message = "Password is required")
@@ -71,15 +87,16 @@ public class User implements UserDetails {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Microseconds, as stored by the database, so a reloaded row yields the same ETag as the saved entity
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        updatedAt = createdAt;
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     // Constructors
@@ -0,0 +1,92 @@
+package com.ecommerce.userservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_import_checkpoints")
+public class UserImportCheckpoint {
+
+    @Id
+    @Column(name = "job_id", length = 100)
+    private String jobId;
+
+    // Last input row whose batch was committed; a resumed import skips everything up to here
+    @Column(name = "last_row", nullable = false)
+    private long rowNumber;
+
+    @Column(nullable = false)
+    private long imported;
+
+    @Column(nullable = false)
+    private long rejected;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public UserImportCheckpoint() {}
+
+    public UserImportCheckpoint(String jobId) {
+        this.jobId = jobId;
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    public void setRowNumber(long rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
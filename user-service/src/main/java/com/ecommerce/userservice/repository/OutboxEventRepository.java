@@ -0,0 +1,23 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Rows another dispatcher has locked are skipped instead of waited on; must run in a transaction
+    @Query(value = "SELECT * FROM outbox_events WHERE available_at <= :now ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEvent> claimBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e")
+    Optional<LocalDateTime> findOldestCreatedAt();
+}
@@ -0,0 +1,176 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.dto.ProfileView;
+import com.ecommerce.userservice.dto.UserSearchCriteria;
+import com.ecommerce.userservice.model.User;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Set-based inserts and scans for bulk work. A whole batch goes to PostgreSQL as one statement
+ * over unnest()ed arrays, which avoids the per-row round trips that IDENTITY keys force on
+ * Hibernate, and ON CONFLICT lets rows that collide with existing users be skipped rather than
+ * failing the batch. Scans page by key, (id) or (created_at, id), never by OFFSET, and never
+ * load entities.
+ */
+@Repository
+public class UserBulkRepository {
+
+    private static final String INSERT_IGNORING_CONFLICTS = """
+            INSERT INTO users (username, email, password, first_name, last_name, phone_number, role,
+                               is_enabled, is_account_non_expired, is_account_non_locked,
+                               is_credentials_non_expired, created_at, updated_at)
+            SELECT u.username, u.email, u.password, u.first_name, u.last_name, u.phone_number, u.role,
+                   true, true, true, true, now(), now()
+            FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[])
+                 AS u(username, email, password, first_name, last_name, phone_number, role)
+            ON CONFLICT DO NOTHING
+            RETURNING username
+            """;
+
+    private static final String IDENTITIES_AFTER = """
+            SELECT id, username, email FROM users WHERE id > ? ORDER BY id LIMIT ?
+            """;
+
+    private static final String USERS_SELECT = """
+            SELECT id, username, email, first_name, last_name, phone_number, date_of_birth, role,
+                   is_enabled, created_at, updated_at
+            FROM users
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Returns the usernames that were inserted; the rest collided with a username or email
+    public Set<String> insertIgnoringConflicts(List<User> users) {
+        if (users.isEmpty()) {
+            return new HashSet<>();
+        }
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_IGNORING_CONFLICTS);
+            statement.setArray(1, textArray(connection, users, User::getUsername));
+            statement.setArray(2, textArray(connection, users, User::getEmail));
+            statement.setArray(3, textArray(connection, users, User::getPassword));
+            statement.setArray(4, textArray(connection, users, User::getFirstName));
+            statement.setArray(5, textArray(connection, users, User::getLastName));
+            statement.setArray(6, textArray(connection, users, User::getPhoneNumber));
+            statement.setArray(7, textArray(connection, users, user -> user.getRole().name()));
+            return statement;
+        }, (ResultSet rs) -> {
+            Set<String> inserted = new HashSet<>();
+            while (rs.next()) {
+                inserted.add(rs.getString(1));
+            }
+            return inserted;
+        });
+    }
+
+    // Hands usernames and emails of up to limit users with id above afterId to handler; returns the last id seen
+    public long scanIdentitiesAfter(long afterId, int limit, BiConsumer<String, String> handler) {
+        long[] lastId = {afterId};
+        jdbcTemplate.query(IDENTITIES_AFTER, rs -> {
+            lastId[0] = rs.getLong(1);
+            handler.accept(rs.getString(2), rs.getString(3));
+        }, afterId, limit);
+        return lastId[0];
+    }
+
+    /**
+     * Hands users matching criteria to handler in (created_at, id) order, starting after the
+     * cursor position. With a limit, one extra row is read so callers can tell whether another
+     * page follows. Rows are fetched fetchSize at a time, which the PostgreSQL driver only does
+     * inside a transaction; outside one it buffers the whole result.
+     */
+    public void scanUsers(UserSearchCriteria criteria, int fetchSize, Consumer<ProfileView> handler) {
+        StringBuilder sql = new StringBuilder(USERS_SELECT).append("WHERE true");
+        List<Object> args = new ArrayList<>();
+        if (criteria.role() != null) {
+            sql.append(" AND role = ?");
+            args.add(criteria.role().name());
+        }
+        if (criteria.enabled() != null) {
+            sql.append(" AND is_enabled = ?");
+            args.add(criteria.enabled());
+        }
+        if (criteria.createdFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(criteria.createdFrom());
+        }
+        if (criteria.createdTo() != null) {
+            sql.append(" AND created_at < ?");
+            args.add(criteria.createdTo());
+        }
+        if (criteria.prefix() != null) {
+            // Served by the text_pattern_ops indexes on lower(username) and lower(email)
+            sql.append(" AND (lower(username) LIKE ? OR lower(email) LIKE ?)");
+            String pattern = escapeLike(criteria.prefix().toLowerCase(Locale.ROOT)) + "%";
+            args.add(pattern);
+            args.add(pattern);
+        }
+        if (criteria.afterId() != null) {
+            // A row comparison, so PostgreSQL seeks straight into the (created_at, id) index
+            sql.append(" AND (created_at, id) > (?, ?)");
+            args.add(criteria.afterCreatedAt());
+            args.add(criteria.afterId());
+        }
+        sql.append(" ORDER BY created_at, id");
+        if (criteria.limit() != null) {
+            sql.append(" LIMIT ?");
+            args.add(criteria.limit() + 1);
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString());
+            statement.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(statement);
+            return statement;
+        }, (ResultSet rs) -> {
+            handler.accept(new ProfileView(
+                    rs.getLong("id"),
+                    rs.getString("username"),
+                    rs.getString("email"),
+                    rs.getString("first_name"),
+                    rs.getString("last_name"),
+                    rs.getString("phone_number"),
+                    toLocalDateTime(rs.getTimestamp("date_of_birth")),
+                    User.Role.valueOf(rs.getString("role")),
+                    rs.getBoolean("is_enabled"),
+                    toLocalDateTime(rs.getTimestamp("created_at")),
+                    toLocalDateTime(rs.getTimestamp("updated_at"))
+            ));
+        });
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static Array textArray(Connection connection, List<User> users, Function<User, String> column)
+            throws SQLException {
+        return connection.createArrayOf("text", users.stream().map(column).toArray());
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.model.UserImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserImportCheckpointRepository extends JpaRepository<UserImportCheckpoint, String> {
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.model.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+
+    /**
+     * Loads a user by the exact stored username through the natural-id and entity cache regions,
+     * so a warm lookup runs no SQL. Case variants miss; callers holding user input fall back to
+     * the case-insensitive findByUsername.
+     */
+    Optional<User> findByNaturalId(String username);
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByNaturalId(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+}
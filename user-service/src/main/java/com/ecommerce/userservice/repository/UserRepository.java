@@ -1,5 +1,9 @@
 package com.ecommerce.userservice.repository;
 
+import com.ecommerce.userservice.dto.AuthView;
+import com.ecommerce.userservice.dto.ProfileView;
+import com.ecommerce.userservice.dto.PublicUserView;
+import com.ecommerce.userservice.dto.UserVersion;
 import com.ecommerce.userservice.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -8,17 +12,45 @@ import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
+// Lookups compare lower() on both sides so PostgreSQL can use the functional unique indexes
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
 
-    Optional<User> findByUsername(String username);
+    @Query("SELECT u FROM User u WHERE lower(u.username) = lower(:username)")
+    Optional<User> findByUsername(@Param("username") String username);
 
-    Optional<User> findByEmail(String email);
+    @Query("SELECT u FROM User u WHERE lower(u.email) = lower(:email)")
+    Optional<User> findByEmail(@Param("email") String email);
 
-    boolean existsByUsername(String username);
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE lower(u.username) = lower(:username)")
+    boolean existsByUsername(@Param("username") String username);
 
-    boolean existsByEmail(String email);
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE lower(u.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
 
-    @Query("SELECT u FROM User u WHERE u.username = :username OR u.email = :email")
+    @Query("SELECT u FROM User u WHERE lower(u.username) = lower(:username) OR lower(u.email) = lower(:email)")
     Optional<User> findByUsernameOrEmail(@Param("username") String username, @Param("email") String email);
-} 
\ No newline at end of file
+
+    // Read paths select only the columns they return, straight into records outside the persistence context
+
+    @Query("SELECT new com.ecommerce.userservice.dto.AuthView(u.id, u.username, u.role, u.enabled) " +
+            "FROM User u WHERE lower(u.username) = lower(:username)")
+    Optional<AuthView> findAuthViewByUsername(@Param("username") String username);
+
+    @Query("SELECT new com.ecommerce.userservice.dto.ProfileView(u.id, u.username, u.email, u.firstName, " +
+            "u.lastName, u.phoneNumber, u.dateOfBirth, u.role, u.enabled, u.createdAt, u.updatedAt) " +
+            "FROM User u WHERE lower(u.username) = lower(:username)")
+    Optional<ProfileView> findProfileViewByUsername(@Param("username") String username);
+
+    @Query("SELECT new com.ecommerce.userservice.dto.PublicUserView(u.id, u.username, u.firstName, u.lastName, " +
+            "u.role, u.createdAt) FROM User u WHERE u.id = :id")
+    Optional<PublicUserView> findPublicViewById(@Param("id") Long id);
+
+    @Query("SELECT new com.ecommerce.userservice.dto.UserVersion(u.id, COALESCE(u.updatedAt, u.createdAt)) " +
+            "FROM User u WHERE u.id = :id")
+    Optional<UserVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new com.ecommerce.userservice.dto.UserVersion(u.id, COALESCE(u.updatedAt, u.createdAt)) " +
+            "FROM User u WHERE lower(u.username) = lower(:username)")
+    Optional<UserVersion> findVersionByUsername(@Param("username") String username);
+}
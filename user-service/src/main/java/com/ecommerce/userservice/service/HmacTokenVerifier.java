@@ -0,0 +1,446 @@
+package com.ecommerce.userservice.service;
+
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Verifies HS256/HS384/HS512 tokens without going through the jjwt parser. Mac instances and
+ * decode buffers are confined to the calling thread and reused, the signature is compared in
+ * constant time before the payload is looked at, and only the claims in {@link VerifiedToken}
+ * are extracted from the payload.
+ *
+ * <p>verify returns null for anything outside that fast path (unknown kid, asymmetric alg,
+ * crit/zip headers, escaped strings, expired or not-yet-valid tokens, malformed input) so the
+ * caller can fall back to jjwt, which produces the precise exception.
+ */
+final class HmacTokenVerifier {
+
+    private static final int ABSENT = 0;
+    private static final int STRING = 1;
+    private static final int NUMBER = 2;
+    private static final int OTHER = 3;
+
+    private static final byte[][] HEADER_FIELDS = {ascii("alg"), ascii("kid"), ascii("crit"), ascii("zip")};
+    private static final int ALG = 0;
+    private static final int KID = 1;
+    private static final int CRIT = 2;
+    private static final int ZIP = 3;
+
+    private static final byte[][] PAYLOAD_FIELDS = {
+            ascii("sub"), ascii("exp"), ascii("nbf"), ascii("uid"), ascii("role"), ascii("ver"), ascii("jti")};
+    private static final int SUB = 0;
+    private static final int EXP = 1;
+    private static final int NBF = 2;
+    private static final int UID = 3;
+    private static final int ROLE = 4;
+    private static final int VER = 5;
+    private static final int JTI = 6;
+
+    private static final int[] BASE64URL = new int[128];
+
+    static {
+        Arrays.fill(BASE64URL, -1);
+        for (int i = 0; i < 26; i++) {
+            BASE64URL['A' + i] = i;
+            BASE64URL['a' + i] = 26 + i;
+        }
+        for (int i = 0; i < 10; i++) {
+            BASE64URL['0' + i] = 52 + i;
+        }
+        BASE64URL['-'] = 62;
+        BASE64URL['_'] = 63;
+    }
+
+    private final byte[][] kids;
+    private final byte[][] algs;
+    private final SecretKey[] keys;
+    private final String[] macAlgorithms;
+    private final int legacyIndex;
+    private final ThreadLocal<Scratch> scratch;
+
+    HmacTokenVerifier(List<JwtKeyManager.SigningKey> hmacKeys, JwtKeyManager.SigningKey legacyKey) {
+        int count = hmacKeys.size();
+        kids = new byte[count][];
+        algs = new byte[count][];
+        keys = new SecretKey[count];
+        macAlgorithms = new String[count];
+        int legacy = -1;
+        for (int i = 0; i < count; i++) {
+            JwtKeyManager.SigningKey key = hmacKeys.get(i);
+            kids[i] = ascii(key.kid());
+            algs[i] = ascii(key.algorithm().getValue());
+            keys[i] = (SecretKey) key.key();
+            macAlgorithms[i] = key.algorithm().getJcaName();
+            if (key.equals(legacyKey)) {
+                legacy = i;
+            }
+        }
+        legacyIndex = legacy;
+        scratch = ThreadLocal.withInitial(() -> new Scratch(count));
+    }
+
+    VerifiedToken verify(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+
+        Scratch s = scratch.get();
+
+        // Header: pick the key by kid and make sure alg is the one that key is registered for
+        s.header = ensureCapacity(s.header, firstDot);
+        int headerLength = decode(token, 0, firstDot, s.header);
+        if (headerLength < 0 || !scanObject(s.header, headerLength, HEADER_FIELDS, s.headerStarts, s.headerEnds, s.headerKinds)) {
+            return null;
+        }
+        if (s.headerKinds[CRIT] != ABSENT || s.headerKinds[ZIP] != ABSENT || s.headerKinds[ALG] != STRING) {
+            return null;
+        }
+        int keyIndex = selectKey(s);
+        if (keyIndex < 0 || !rangeEquals(algs[keyIndex], s.header, s.headerStarts[ALG], s.headerEnds[ALG])) {
+            return null;
+        }
+
+        // Signature over the ASCII bytes of header.payload, checked before the payload is parsed
+        if (s.input.length < secondDot) {
+            s.input = new byte[Math.max(secondDot, s.input.length * 2)];
+        }
+        for (int i = 0; i < secondDot; i++) {
+            char c = token.charAt(i);
+            if (c > 127) {
+                return null;
+            }
+            s.input[i] = (byte) c;
+        }
+        Mac mac = s.mac(keyIndex, macAlgorithms[keyIndex], keys[keyIndex]);
+        mac.update(s.input, 0, secondDot);
+        int macLength = mac.getMacLength();
+        try {
+            mac.doFinal(s.expected, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC computation failed", e);
+        }
+        s.signature = ensureCapacity(s.signature, token.length() - secondDot - 1);
+        int signatureLength = decode(token, secondDot + 1, token.length(), s.signature);
+        if (signatureLength != macLength || !constantTimeEquals(s.expected, s.signature, macLength)) {
+            throw new SignatureException("JWT signature does not match locally computed signature.");
+        }
+
+        // Payload: only the claims we act on
+        s.payload = ensureCapacity(s.payload, secondDot - firstDot - 1);
+        int payloadLength = decode(token, firstDot + 1, secondDot, s.payload);
+        if (payloadLength < 0 || !scanObject(s.payload, payloadLength, PAYLOAD_FIELDS, s.payloadStarts, s.payloadEnds, s.payloadKinds)) {
+            return null;
+        }
+        int[] kinds = s.payloadKinds;
+        if (!hasKind(kinds, SUB, STRING) || !hasKind(kinds, ROLE, STRING) || !hasKind(kinds, JTI, STRING)
+                || !hasKind(kinds, EXP, NUMBER) || !hasKind(kinds, NBF, NUMBER)
+                || !hasKind(kinds, UID, NUMBER) || !hasKind(kinds, VER, NUMBER)) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        long expiresAt = 0L;
+        if (kinds[EXP] == NUMBER) {
+            expiresAt = parseLong(s.payload, s.payloadStarts[EXP], s.payloadEnds[EXP]) * 1000L;
+            if (now > expiresAt) {
+                return null;
+            }
+        }
+        if (kinds[NBF] == NUMBER && now < parseLong(s.payload, s.payloadStarts[NBF], s.payloadEnds[NBF]) * 1000L) {
+            return null;
+        }
+
+        return new VerifiedToken(
+                string(s, SUB),
+                kinds[UID] == NUMBER ? parseLong(s.payload, s.payloadStarts[UID], s.payloadEnds[UID]) : null,
+                string(s, ROLE),
+                kinds[VER] == NUMBER ? (int) parseLong(s.payload, s.payloadStarts[VER], s.payloadEnds[VER]) : null,
+                string(s, JTI),
+                expiresAt
+        );
+    }
+
+    private int selectKey(Scratch s) {
+        if (s.headerKinds[KID] == ABSENT) {
+            return legacyIndex;
+        }
+        if (s.headerKinds[KID] != STRING) {
+            return -1;
+        }
+        for (int i = 0; i < kids.length; i++) {
+            if (rangeEquals(kids[i], s.header, s.headerStarts[KID], s.headerEnds[KID])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean hasKind(int[] kinds, int field, int expected) {
+        return kinds[field] == ABSENT || kinds[field] == expected;
+    }
+
+    private static String string(Scratch s, int field) {
+        if (s.payloadKinds[field] != STRING) {
+            return null;
+        }
+        int start = s.payloadStarts[field];
+        return new String(s.payload, start, s.payloadEnds[field] - start, StandardCharsets.UTF_8);
+    }
+
+    private static int decode(String source, int from, int to, byte[] out) {
+        if ((to - from) % 4 == 1) {
+            return -1;
+        }
+        int length = 0;
+        int accumulator = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            accumulator = (accumulator << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[length++] = (byte) (accumulator >> bits);
+                accumulator &= (1 << bits) - 1;
+            }
+        }
+        return length;
+    }
+
+    private static boolean constantTimeEquals(byte[] a, byte[] b, int length) {
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            diff |= a[i] ^ b[i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * Single pass over a flat JSON object recording where each requested member's value lives.
+     * Nested values are skipped. Returns false on malformed input, duplicate or escaped
+     * member names, and escaped string values, all of which go to the jjwt fallback.
+     */
+    private static boolean scanObject(byte[] json, int length, byte[][] names, int[] starts, int[] ends, int[] kinds) {
+        Arrays.fill(kinds, ABSENT);
+        int i = skipWhitespace(json, 0, length);
+        if (i >= length || json[i] != '{') {
+            return false;
+        }
+        i = skipWhitespace(json, i + 1, length);
+        if (i < length && json[i] == '}') {
+            return true;
+        }
+
+        while (i < length) {
+            if (json[i] != '"') {
+                return false;
+            }
+            int nameStart = i + 1;
+            int nameEnd = stringEnd(json, nameStart, length);
+            if (nameEnd < 0) {
+                return false;
+            }
+            i = skipWhitespace(json, nameEnd + 1, length);
+            if (i >= length || json[i] != ':') {
+                return false;
+            }
+            i = skipWhitespace(json, i + 1, length);
+            if (i >= length) {
+                return false;
+            }
+
+            int valueStart;
+            int valueEnd;
+            int kind;
+            byte first = json[i];
+            if (first == '"') {
+                valueStart = i + 1;
+                valueEnd = stringEnd(json, valueStart, length);
+                if (valueEnd < 0) {
+                    return false;
+                }
+                kind = STRING;
+                i = valueEnd + 1;
+            } else if (first == '{' || first == '[') {
+                valueStart = i;
+                i = skipComposite(json, i, length);
+                if (i < 0) {
+                    return false;
+                }
+                valueEnd = i;
+                kind = OTHER;
+            } else {
+                valueStart = i;
+                while (i < length && json[i] != ',' && json[i] != '}' && !isWhitespace(json[i])) {
+                    i++;
+                }
+                valueEnd = i;
+                kind = isInteger(json, valueStart, valueEnd) ? NUMBER : OTHER;
+            }
+
+            for (int field = 0; field < names.length; field++) {
+                if (rangeEquals(names[field], json, nameStart, nameEnd)) {
+                    if (kinds[field] != ABSENT) {
+                        return false;
+                    }
+                    starts[field] = valueStart;
+                    ends[field] = valueEnd;
+                    kinds[field] = kind;
+                    break;
+                }
+            }
+
+            i = skipWhitespace(json, i, length);
+            if (i >= length) {
+                return false;
+            }
+            if (json[i] == '}') {
+                return true;
+            }
+            if (json[i] != ',') {
+                return false;
+            }
+            i = skipWhitespace(json, i + 1, length);
+        }
+        return false;
+    }
+
+    // Index of the closing quote, or -1 if unterminated or escaped
+    private static int stringEnd(byte[] json, int from, int length) {
+        for (int i = from; i < length; i++) {
+            if (json[i] == '\\') {
+                return -1;
+            }
+            if (json[i] == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipComposite(byte[] json, int from, int length) {
+        int depth = 0;
+        boolean inString = false;
+        for (int i = from; i < length; i++) {
+            byte c = json[i];
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) {
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isInteger(byte[] json, int from, int to) {
+        int start = from < to && json[from] == '-' ? from + 1 : from;
+        if (start == to || to - start > 18) {
+            return false;
+        }
+        for (int i = start; i < to; i++) {
+            if (json[i] < '0' || json[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseLong(byte[] json, int from, int to) {
+        boolean negative = json[from] == '-';
+        long value = 0;
+        for (int i = negative ? from + 1 : from; i < to; i++) {
+            value = value * 10 + (json[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static int skipWhitespace(byte[] json, int from, int length) {
+        int i = from;
+        while (i < length && isWhitespace(json[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static boolean rangeEquals(byte[] expected, byte[] json, int from, int to) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (json[from + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Sized for the decoded form of a base64url segment of the given length
+    private static byte[] ensureCapacity(byte[] buffer, int encodedLength) {
+        int required = encodedLength * 3 / 4 + 3;
+        return buffer.length >= required ? buffer : new byte[Math.max(required, buffer.length * 2)];
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Scratch {
+
+        private final Mac[] macs;
+        private final byte[] expected = new byte[64];
+        private final int[] headerStarts = new int[HEADER_FIELDS.length];
+        private final int[] headerEnds = new int[HEADER_FIELDS.length];
+        private final int[] headerKinds = new int[HEADER_FIELDS.length];
+        private final int[] payloadStarts = new int[PAYLOAD_FIELDS.length];
+        private final int[] payloadEnds = new int[PAYLOAD_FIELDS.length];
+        private final int[] payloadKinds = new int[PAYLOAD_FIELDS.length];
+        private byte[] header = new byte[128];
+        private byte[] payload = new byte[512];
+        private byte[] signature = new byte[64];
+        private byte[] input = new byte[1024];
+
+        private Scratch(int keyCount) {
+            macs = new Mac[keyCount];
+        }
+
+        private Mac mac(int index, String algorithm, SecretKey key) {
+            Mac mac = macs[index];
+            if (mac == null) {
+                try {
+                    mac = Mac.getInstance(algorithm);
+                    mac.init(key);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("Cannot initialise " + algorithm, e);
+                }
+                macs[index] = mac;
+            }
+            return mac;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.config.JwtSigningProperties;
+import com.ecommerce.userservice.config.JwtSigningProperties.KeyProperties;
+import com.ecommerce.userservice.config.JwtSigningProperties.KeyStatus;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+public class JwtKeyManager extends SigningKeyResolverAdapter {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyManager.class);
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Autowired
+    private JwtSigningProperties properties;
+
+    @Autowired(required = false)
+    private ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+    private SigningKey activeKey;
+    private SigningKey legacyHmacKey;
+    private Map<String, SigningKey> verificationKeys = Map.of();
+    private List<Map<String, Object>> publishedKeys = List.of();
+
+    public record SigningKey(String kid, SignatureAlgorithm algorithm, Key key) {
+    }
+
+    @PostConstruct
+    void init() {
+        SignatureAlgorithm algorithm = resolveAlgorithm(properties.getAlgorithm());
+        Map<String, SigningKey> verification = new LinkedHashMap<>();
+        List<Map<String, Object>> published = new ArrayList<>();
+        SigningKey active = null;
+
+        SigningKey hmacKey = buildHmacKey(algorithm.isHmac() ? algorithm : SignatureAlgorithm.HS256);
+        if (hmacKey != null && (algorithm.isHmac() || properties.isAcceptLegacyHmac())) {
+            legacyHmacKey = hmacKey;
+            verification.put(hmacKey.kid(), hmacKey);
+        }
+
+        if (algorithm.isHmac()) {
+            active = hmacKey;
+        } else {
+            for (KeyProperties keyProperties : properties.getKeys()) {
+                SignatureAlgorithm keyAlgorithm = keyProperties.getAlgorithm() != null
+                        ? resolveAlgorithm(keyProperties.getAlgorithm()) : algorithm;
+                PublicKey publicKey = loadPublicKey(keyProperties, keyAlgorithm);
+                SigningKey verificationKey = new SigningKey(keyProperties.getKid(), keyAlgorithm, publicKey);
+
+                if (keyProperties.getStatus() == KeyStatus.ACTIVE) {
+                    if (active != null) {
+                        throw new IllegalStateException("Only one jwt.signing key may be ACTIVE");
+                    }
+                    active = new SigningKey(keyProperties.getKid(), keyAlgorithm,
+                            readPrivateKey(keyProperties.getPrivateKey(), keyAlgorithm));
+                }
+                if (keyProperties.getStatus() != KeyStatus.NEXT) {
+                    verification.put(keyProperties.getKid(), verificationKey);
+                }
+                published.add(toJwk(verificationKey));
+            }
+
+            if (active == null) {
+                // Development fallback: tokens signed with this key do not survive a restart or span nodes
+                KeyPair keyPair = Keys.keyPairFor(algorithm);
+                String kid = "ephemeral-" + UUID.randomUUID();
+                log.warn("No ACTIVE jwt.signing key configured for {}; generated ephemeral key {}", algorithm, kid);
+                active = new SigningKey(kid, algorithm, keyPair.getPrivate());
+                SigningKey verificationKey = new SigningKey(kid, algorithm, keyPair.getPublic());
+                verification.put(kid, verificationKey);
+                published.add(toJwk(verificationKey));
+            }
+        }
+
+        activeKey = active;
+        verificationKeys = Map.copyOf(verification);
+        publishedKeys = List.copyOf(published);
+    }
+
+    public SigningKey getActiveKey() {
+        if (activeKey == null) {
+            throw new IllegalStateException("jwt.secret must be at least 256 bits to sign HMAC tokens");
+        }
+        return activeKey;
+    }
+
+    public List<SigningKey> getHmacVerificationKeys() {
+        return verificationKeys.values().stream()
+                .filter(key -> key.algorithm().isHmac())
+                .toList();
+    }
+
+    public SigningKey getLegacyHmacKey() {
+        return legacyHmacKey;
+    }
+
+    public Map<String, Object> getJwks() {
+        return Map.of("keys", publishedKeys);
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            // Tokens issued before kid headers were introduced
+            if (legacyHmacKey == null) {
+                throw new UnsupportedJwtException("Token has no kid header");
+            }
+            return legacyHmacKey.key();
+        }
+
+        SigningKey key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key: " + kid);
+        }
+        if (!key.algorithm().getValue().equals(header.getAlgorithm())) {
+            throw new UnsupportedJwtException("Algorithm " + header.getAlgorithm() + " not allowed for key " + kid);
+        }
+        return key.key();
+    }
+
+    private SigningKey buildHmacKey(SignatureAlgorithm algorithm) {
+        try {
+            byte[] secretBytes = secret.getBytes();
+            Key key = Keys.hmacShaKeyFor(secretBytes);
+            // Stable across nodes sharing the secret without revealing it
+            byte[] fingerprint = MessageDigest.getInstance("SHA-256").digest(secretBytes);
+            String kid = "hs-" + HexFormat.of().formatHex(fingerprint, 0, 8);
+            return new SigningKey(kid, algorithm, key);
+        } catch (WeakKeyException e) {
+            log.error("jwt.secret is shorter than 256 bits; HMAC tokens can neither be signed nor verified");
+            return null;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static SignatureAlgorithm resolveAlgorithm(String name) {
+        SignatureAlgorithm algorithm;
+        try {
+            algorithm = SignatureAlgorithm.forName(name);
+        } catch (io.jsonwebtoken.security.SignatureException e) {
+            throw new IllegalStateException("Unsupported jwt.signing algorithm: " + name, e);
+        }
+        if (algorithm == SignatureAlgorithm.NONE || !algorithm.isJdkStandard()) {
+            throw new IllegalStateException("Unsupported jwt.signing algorithm: " + name);
+        }
+        return algorithm;
+    }
+
+    private PublicKey loadPublicKey(KeyProperties keyProperties, SignatureAlgorithm algorithm) {
+        if (keyProperties.getPublicKey() != null) {
+            return readPublicKey(keyProperties.getPublicKey(), algorithm);
+        }
+        if (keyProperties.getPrivateKey() != null && algorithm.isRsa()) {
+            RSAPrivateCrtKey privateKey = (RSAPrivateCrtKey) readPrivateKey(keyProperties.getPrivateKey(), algorithm);
+            try {
+                return KeyFactory.getInstance("RSA").generatePublic(
+                        new RSAPublicKeySpec(privateKey.getModulus(), privateKey.getPublicExponent()));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot derive public key for " + keyProperties.getKid(), e);
+            }
+        }
+        throw new IllegalStateException("jwt.signing key " + keyProperties.getKid() + " needs a public-key");
+    }
+
+    private PrivateKey readPrivateKey(String location, SignatureAlgorithm algorithm) {
+        try {
+            return keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(readPem(location)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid PKCS#8 private key: " + location, e);
+        }
+    }
+
+    private PublicKey readPublicKey(String location, SignatureAlgorithm algorithm) {
+        try {
+            return keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(readPem(location)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid X.509 public key: " + location, e);
+        }
+    }
+
+    private static KeyFactory keyFactory(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+        return KeyFactory.getInstance(algorithm.isEllipticCurve() ? "EC" : "RSA");
+    }
+
+    // Accepts either an inline PEM block or a Spring resource location (file:, classpath:)
+    private byte[] readPem(String value) {
+        String pem = value;
+        if (!value.startsWith("-----BEGIN")) {
+            try (InputStream in = resourceLoader.getResource(value).getInputStream()) {
+                pem = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read key from " + value, e);
+            }
+        }
+        String base64 = pem.replaceAll("-----(BEGIN|END)[^-]*-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static Map<String, Object> toJwk(SigningKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        if (key.key() instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", encoder.encodeToString(unsigned(rsa.getModulus(), 0)));
+            jwk.put("e", encoder.encodeToString(unsigned(rsa.getPublicExponent(), 0)));
+        } else if (key.key() instanceof ECPublicKey ec) {
+            int fieldSize = ec.getParams().getCurve().getField().getFieldSize();
+            int length = (fieldSize + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-" + fieldSize);
+            jwk.put("x", encoder.encodeToString(unsigned(ec.getW().getAffineX(), length)));
+            jwk.put("y", encoder.encodeToString(unsigned(ec.getW().getAffineY(), length)));
+        }
+        jwk.put("kid", key.kid());
+        jwk.put("use", "sig");
+        jwk.put("alg", key.algorithm().getValue());
+        return jwk;
+    }
+
+    // Big-endian magnitude without the sign byte, left-padded to length when length > 0
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        int start = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int size = Math.max(bytes.length - start, length);
+        byte[] result = new byte[size];
+        System.arraycopy(bytes, start, result, size - (bytes.length - start), bytes.length - start);
+        return result;
+    }
+}
@@ -1,36 +1,89 @@
 package com.ecommerce.userservice.service;
 
+import com.ecommerce.userservice.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_VERSION = "ver";
+
+    // Bump when the set of identity claims embedded in issued tokens changes
+    public static final int TOKEN_VERSION = 1;
+
+    private static final ThreadLocal<TokenDigest> TOKEN_DIGEST = ThreadLocal.withInitial(TokenDigest::new);
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    @Autowired
+    private JwtKeyManager keyManager;
+
+    @Autowired(required = false)
+    private TokenRevocationService revocationService;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private JwtParser parser;
+
+    private HmacTokenVerifier hmacVerifier;
+
+    // Verified claims keyed by SHA-256 of the compact token, expiring with the token itself
+    private Cache<ByteBuffer, VerifiedToken> verifiedClaims;
+
+    @PostConstruct
+    void init() {
+        // Keys are resolved per token from its kid header, so one parser serves every key generation
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyManager)
+                .build();
+        hmacVerifier = new HmacTokenVerifier(keyManager.getHmacVerificationKeys(), keyManager.getLegacyHmacKey());
+
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedClaims, "jwt.verified-claims");
+        }
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).expiration();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -38,12 +91,52 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Full claim set through jjwt; hot paths should use verify(), which is cached
+    public Claims extractAllClaims(String token) {
+        requireToken(token);
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        checkNotRevoked(claims.getId());
+        return claims;
+    }
+
+    public VerifiedToken verify(String token) {
+        requireToken(token);
+        // A max-size of 0 turns the cache off entirely (every call verifies the signature)
+        VerifiedToken verified = claimsCacheMaxSize > 0 ? verifyCached(token) : verifyUncached(token);
+
+        // Checked on every call, including cache hits, so revocation takes effect immediately
+        checkNotRevoked(verified.id());
+        return verified;
+    }
+
+    private VerifiedToken verifyCached(String token) {
+        TokenDigest tokenDigest = TOKEN_DIGEST.get();
+        ByteBuffer lookupKey = tokenDigest.digest(token);
+        VerifiedToken cached = verifiedClaims.getIfPresent(lookupKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified = verifyUncached(token);
+        verifiedClaims.put(tokenDigest.copyOfLastDigest(), verified);
+        return verified;
+    }
+
+    private VerifiedToken verifyUncached(String token) {
+        VerifiedToken verified = hmacVerifier.verify(token);
+        return verified != null ? verified : VerifiedToken.from(parser.parseClaimsJws(token).getBody());
+    }
+
+    private void checkNotRevoked(String jti) {
+        if (revocationService != null && revocationService.isRevoked(jti)) {
+            throw new TokenRevokedException(jti);
+        }
+    }
+
+    private static void requireToken(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT token must not be empty");
+        }
     }
 
     private Boolean isTokenExpired(String token) {
@@ -52,6 +145,11 @@ public class JwtService {
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user && user.getId() != null) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            claims.put(CLAIM_VERSION, TOKEN_VERSION);
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -60,12 +158,15 @@ public class JwtService {
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        JwtKeyManager.SigningKey signingKey = keyManager.getActiveKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey.key(), signingKey.algorithm())
                 .compact();
     }
 
@@ -76,13 +177,86 @@ public class JwtService {
 
     public Boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            verify(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
-} 
\ No newline at end of file
+
+    public long getExpirationMillis() {
+        return expiration;
+    }
+
+    public CacheStats getClaimsCacheStats() {
+        return verifiedClaims.stats();
+    }
+
+    public long getClaimsCacheSize() {
+        return verifiedClaims.estimatedSize();
+    }
+
+    // Reusable per-thread SHA-256 state so a cache hit allocates nothing for the lookup key
+    private static final class TokenDigest {
+
+        private final MessageDigest digest;
+        private final byte[] output = new byte[32];
+        private final ByteBuffer lookupKey = ByteBuffer.wrap(output);
+        private byte[] input = new byte[1024];
+
+        private TokenDigest() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        private ByteBuffer digest(String token) {
+            int length = token.length();
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                char c = token.charAt(i);
+                if (c > 127) {
+                    throw new MalformedJwtException("JWT strings must be ASCII");
+                }
+                input[i] = (byte) c;
+            }
+            digest.update(input, 0, length);
+            try {
+                digest.digest(output, 0, output.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException("SHA-256 digest failed", e);
+            }
+            return lookupKey;
+        }
+
+        private ByteBuffer copyOfLastDigest() {
+            return ByteBuffer.wrap(output.clone());
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken token, long currentTime) {
+            if (token.expiresAt() == 0L) {
+                return 0L;
+            }
+            long remainingMillis = token.expiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.util.TokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Throttles login attempts per username and per client address before any password is hashed.
+ * Every attempt takes a token from both buckets and a successful login gives the username token
+ * back, so only failures accumulate; an attempt turned away before hashing gives both back. The in-process buckets answer the common case with a map
+ * lookup and a CAS; when sharing is enabled, attempts that pass locally are also counted in
+ * Redis so an attacker cannot spread guesses across nodes.
+ */
+@Service
+public class LoginAttemptLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptLimiter.class);
+
+    static final String USERNAME_KEY_PREFIX = "login-attempts:user:";
+    static final String ADDRESS_KEY_PREFIX = "login-attempts:ip:";
+
+    // KEYS: buckets; ARGV[1] now (epoch ms), then capacity and refill ms per key.
+    // Returns 0 after taking a token from every bucket, otherwise ms until all have one.
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local tokens = {}
+            local wait = 0
+            for i, key in ipairs(KEYS) do
+              local capacity = tonumber(ARGV[2 * i])
+              local refill = tonumber(ARGV[2 * i + 1])
+              local bucket = redis.call('HMGET', key, 'tokens', 'ts')
+              local available = tonumber(bucket[1]) or capacity
+              local elapsed = math.max(0, now - (tonumber(bucket[2]) or now))
+              available = math.min(capacity, available + elapsed / refill)
+              tokens[i] = available
+              if available < 1 then
+                wait = math.max(wait, math.ceil((1 - available) * refill))
+              end
+            end
+            if wait > 0 then
+              return wait
+            end
+            for i, key in ipairs(KEYS) do
+              local capacity = tonumber(ARGV[2 * i])
+              local refill = tonumber(ARGV[2 * i + 1])
+              redis.call('HSET', key, 'tokens', tostring(tokens[i] - 1), 'ts', ARGV[1])
+              redis.call('PEXPIRE', key, math.ceil(capacity * refill))
+            end
+            return 0
+            """, Long.class);
+
+    // KEYS: buckets; ARGV: capacity per key. Returns a token taken by ACQUIRE to each bucket.
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            for i, key in ipairs(KEYS) do
+              local tokens = tonumber(redis.call('HGET', key, 'tokens'))
+              if tokens then
+                redis.call('HSET', key, 'tokens', tostring(math.min(tonumber(ARGV[i]), tokens + 1)))
+              end
+            end
+            return 0
+            """, Long.class);
+
+    @Value("${app.login-limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.login-limiter.username-capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${app.login-limiter.username-refill-ms:60000}")
+    private long usernameRefillMillis;
+
+    @Value("${app.login-limiter.address-capacity:30}")
+    private int addressCapacity;
+
+    @Value("${app.login-limiter.address-refill-ms:2000}")
+    private long addressRefillMillis;
+
+    @Value("${app.login-limiter.max-tracked-keys:100000}")
+    private int maxTrackedKeys;
+
+    @Value("${app.login-limiter.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${app.login-limiter.shared:false}")
+    private boolean shared;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private TokenBucketLimiter usernames;
+    private TokenBucketLimiter addresses;
+
+    private Counter usernameRejections;
+    private Counter addressRejections;
+
+    @PostConstruct
+    void init() {
+        long now = System.currentTimeMillis();
+        usernames = new TokenBucketLimiter(usernameCapacity, usernameRefillMillis, maxTrackedKeys, tickMillis, now);
+        addresses = new TokenBucketLimiter(addressCapacity, addressRefillMillis, maxTrackedKeys, tickMillis, now);
+
+        if (meterRegistry != null) {
+            usernameRejections = meterRegistry.counter("login.limiter.rejected", "key", "username");
+            addressRejections = meterRegistry.counter("login.limiter.rejected", "key", "address");
+            Gauge.builder("login.limiter.tracked", this, limiter -> limiter.usernames.size())
+                    .tag("key", "username").register(meterRegistry);
+            Gauge.builder("login.limiter.tracked", this, limiter -> limiter.addresses.size())
+                    .tag("key", "address").register(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns 0 when the attempt may proceed, otherwise how many milliseconds the caller should
+     * wait before trying again.
+     */
+    public long tryAcquire(String username, String clientAddress) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        String user = normalize(username);
+
+        long wait = addresses.tryAcquire(clientAddress, now);
+        if (wait > 0) {
+            increment(addressRejections);
+            return wait;
+        }
+        wait = usernames.tryAcquire(user, now);
+        if (wait > 0) {
+            increment(usernameRejections);
+            return wait;
+        }
+        return shared ? acquireShared(user, clientAddress, now) : 0;
+    }
+
+    public void onSuccess(String username) {
+        if (!enabled) {
+            return;
+        }
+        String user = normalize(username);
+        usernames.release(user, System.currentTimeMillis());
+        if (shared) {
+            try {
+                redisTemplate.delete(USERNAME_KEY_PREFIX + user);
+            } catch (RuntimeException e) {
+                log.warn("Could not clear shared login attempts for {}: {}", user, e.getMessage());
+            }
+        }
+    }
+
+    // The attempt was accepted but never checked a password (e.g. the hashing pool was full), so it
+    // should not count against the user or the address
+    public void onRejected(String username, String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        String user = normalize(username);
+        usernames.release(user, now);
+        addresses.release(clientAddress, now);
+        if (shared) {
+            try {
+                redisTemplate.execute(RELEASE,
+                        List.of(USERNAME_KEY_PREFIX + user, ADDRESS_KEY_PREFIX + clientAddress),
+                        String.valueOf(usernameCapacity), String.valueOf(addressCapacity));
+            } catch (RuntimeException e) {
+                log.warn("Could not return shared login attempts for {}: {}", user, e.getMessage());
+            }
+        }
+    }
+
+    // Drops buckets that have refilled completely; only the wheel slots that are due are visited
+    @Scheduled(fixedRateString = "${app.login-limiter.tick-ms:1000}")
+    public void expire() {
+        if (enabled) {
+            long now = System.currentTimeMillis();
+            usernames.expire(now);
+            addresses.expire(now);
+        }
+    }
+
+    private long acquireShared(String user, String clientAddress, long now) {
+        try {
+            Long wait = redisTemplate.execute(ACQUIRE,
+                    List.of(USERNAME_KEY_PREFIX + user, ADDRESS_KEY_PREFIX + clientAddress),
+                    String.valueOf(now),
+                    String.valueOf(usernameCapacity), String.valueOf(usernameRefillMillis),
+                    String.valueOf(addressCapacity), String.valueOf(addressRefillMillis));
+            if (wait != null && wait > 0) {
+                increment(usernameRejections);
+                return wait;
+            }
+        } catch (RuntimeException e) {
+            // The local buckets still apply, so an unreachable Redis should not block every login
+            log.warn("Shared login limiter unavailable, using local limits only: {}", e.getMessage());
+        }
+        return 0;
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
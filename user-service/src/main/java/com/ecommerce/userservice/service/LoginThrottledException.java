@@ -0,0 +1,15 @@
+package com.ecommerce.userservice.service;
+
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public LoginThrottledException(long retryAfterMillis) {
+        super("Too many login attempts, retry in " + Math.max(1, (retryAfterMillis + 999) / 1000) + " s");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfterMillis + 999) / 1000);
+    }
+}
@@ -0,0 +1,183 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.model.OutboxEvent;
+import com.ecommerce.userservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox rows to a Redis stream. Each batch is claimed with FOR UPDATE SKIP LOCKED,
+ * so any number of nodes can dispatch without coordinating, sent as one pipelined round of XADDs
+ * and deleted in the same transaction. A failed batch is retried with exponential backoff, and a
+ * crash between publishing and committing re-sends the batch: delivery is at least once, and
+ * consumers dedupe on the eventId field.
+ */
+@Service
+@ConditionalOnProperty(name = "app.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Value("${app.outbox.stream:user-service:user-events}")
+    private String stream;
+
+    @Value("${app.outbox.stream-max-length:100000}")
+    private long streamMaxLength;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    // Caps one run so a large backlog cannot hold the scheduler thread indefinitely
+    @Value("${app.outbox.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMillis;
+
+    @Value("${app.outbox.max-retry-backoff-ms:300000}")
+    private long maxRetryBackoffMillis;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private Counter published;
+    private Counter failed;
+
+    @PostConstruct
+    void init() {
+        if (meterRegistry != null) {
+            published = meterRegistry.counter("outbox.events.published");
+            failed = meterRegistry.counter("outbox.events.failed");
+            Gauge.builder("outbox.backlog", backlog, AtomicLong::get).register(meterRegistry);
+            TimeGauge.builder("outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get).register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                Integer sent = transactions.execute(status -> dispatchBatch());
+                if (sent == null || sent < batchSize) {
+                    break;
+                }
+            }
+            refreshBacklog();
+        } catch (RuntimeException e) {
+            log.warn("Outbox dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    // Returns how many events were published; 0 after a failure so the run stops hammering Redis
+    int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.claimBatch(now, batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            publish(events);
+        } catch (RuntimeException e) {
+            for (OutboxEvent event : events) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setAvailableAt(now.plus(backoff(event.getAttempts())));
+                event.setLastError(truncate(e.getMessage()));
+            }
+            log.warn("Publishing {} outbox events failed (attempt {}): {}",
+                    events.size(), events.get(0).getAttempts(), e.getMessage());
+            increment(failed, events.size());
+            return 0;
+        }
+
+        outboxEventRepository.deleteAllInBatch(events);
+        increment(published, events.size());
+        return events.size();
+    }
+
+    private void publish(List<OutboxEvent> events) {
+        byte[] key = stream.getBytes(StandardCharsets.UTF_8);
+        // Approximate trimming lets Redis drop whole macro nodes, which keeps XADD O(1)
+        XAddOptions options = XAddOptions.maxlen(streamMaxLength).approximateTrimming(true);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (OutboxEvent event : events) {
+                Map<byte[], byte[]> fields = new LinkedHashMap<>();
+                fields.put(bytes("eventId"), bytes(String.valueOf(event.getId())));
+                fields.put(bytes("type"), bytes(event.getEventType()));
+                fields.put(bytes("aggregateId"), bytes(String.valueOf(event.getAggregateId())));
+                fields.put(bytes("payload"), bytes(event.getPayload()));
+                connection.streamCommands().xAdd(MapRecord.create(key, fields), options);
+            }
+            return null;
+        });
+    }
+
+    private void refreshBacklog() {
+        backlog.set(outboxEventRepository.count());
+        lagMillis.set(outboxEventRepository.findOldestCreatedAt()
+                .map(oldest -> Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()))
+                .orElse(0L));
+    }
+
+    private Duration backoff(int attempts) {
+        long millis = retryBackoffMillis << Math.min(attempts - 1, 20);
+        return Duration.ofMillis(Math.min(millis, maxRetryBackoffMillis));
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void increment(Counter counter, int amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.UserEventDto;
+import com.ecommerce.userservice.model.OutboxEvent;
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records user lifecycle events in the outbox table. The row is written in the caller's
+ * transaction, so an event exists exactly when the change it describes was committed, and
+ * downstream services are told about it by OutboxDispatcher without adding to request latency.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UserEventDto.Type type, User user) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(new UserEventDto(type, user));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + type + " event: " + e.getMessage(), e);
+        }
+        outboxEventRepository.save(new OutboxEvent(user.getId(), type.name(), payload));
+    }
+}
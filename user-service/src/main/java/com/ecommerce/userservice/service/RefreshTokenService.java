@@ -0,0 +1,163 @@
+package com.ecommerce.userservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque, rotating refresh tokens. A token is "familyId.secret"; Redis keeps one hash per
+ * family holding the SHA-256 of the only secret currently allowed to refresh, so the raw
+ * token is never stored. Each refresh swaps in a new secret atomically. Presenting a secret
+ * that has already been rotated out means the token leaked, and the whole family is revoked.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    static final String KEY_PREFIX = "refresh-token-family:";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    // KEYS[1] family; ARGV: secret hash, username, ttl ms, absolute expiry (epoch ms)
+    private static final RedisScript<Long> ISSUE = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], 'current', ARGV[1], 'username', ARGV[2], 'max-expires-at', ARGV[4])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """, Long.class);
+
+    // KEYS[1] family; ARGV: presented hash, replacement hash, ttl ms, now (epoch ms)
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ROTATE = new DefaultRedisScript<>("""
+            local family = redis.call('HMGET', KEYS[1], 'current', 'username', 'max-expires-at')
+            if not family[1] then
+              return {'UNKNOWN'}
+            end
+            if family[1] ~= ARGV[1] then
+              redis.call('DEL', KEYS[1])
+              return {'REUSED', family[2]}
+            end
+            local remaining = tonumber(family[3]) - tonumber(ARGV[4])
+            if remaining <= 0 then
+              redis.call('DEL', KEYS[1])
+              return {'EXPIRED', family[2]}
+            end
+            redis.call('HSET', KEYS[1], 'current', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], math.min(tonumber(ARGV[3]), remaining))
+            return {'ROTATED', family[2]}
+            """, List.class);
+
+    @Value("${jwt.refresh.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.refresh.expiration:1209600000}")
+    private long expiration;
+
+    @Value("${jwt.refresh.max-lifetime:2592000000}")
+    private long maxLifetime;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private Counter rotations;
+    private Counter reuseDetections;
+
+    public record Rotation(String username, String refreshToken) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (meterRegistry != null) {
+            rotations = meterRegistry.counter("jwt.refresh.rotations");
+            reuseDetections = meterRegistry.counter("jwt.refresh.reuse-detected");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String issue(String username) {
+        String familyId = randomToken(16);
+        String secret = randomToken(32);
+        redisTemplate.execute(ISSUE, List.of(KEY_PREFIX + familyId),
+                hash(secret), username, String.valueOf(expiration),
+                String.valueOf(System.currentTimeMillis() + maxLifetime));
+        return familyId + "." + secret;
+    }
+
+    public Rotation rotate(String refreshToken) {
+        String[] parts = split(refreshToken);
+        String secret = randomToken(32);
+        List<?> result = redisTemplate.execute(ROTATE, List.of(KEY_PREFIX + parts[0]),
+                hash(parts[1]), hash(secret), String.valueOf(expiration),
+                String.valueOf(System.currentTimeMillis()));
+
+        String status = result == null || result.isEmpty() ? "UNKNOWN" : String.valueOf(result.get(0));
+        switch (status) {
+            case "ROTATED" -> {
+                increment(rotations);
+                return new Rotation(String.valueOf(result.get(1)), parts[0] + "." + secret);
+            }
+            case "REUSED" -> {
+                increment(reuseDetections);
+                log.warn("Rotated-out refresh token presented for user {}; revoked token family {}",
+                        result.get(1), parts[0]);
+                throw new RuntimeException("Refresh token has already been used");
+            }
+            default -> throw new RuntimeException("Refresh token is invalid or expired");
+        }
+    }
+
+    public void revoke(String refreshToken) {
+        redisTemplate.delete(KEY_PREFIX + split(refreshToken)[0]);
+    }
+
+    private static String[] split(String refreshToken) {
+        int dot = refreshToken == null ? -1 : refreshToken.indexOf('.');
+        if (dot <= 0 || dot == refreshToken.length() - 1) {
+            throw new RuntimeException("Refresh token is invalid or expired");
+        }
+        return new String[]{refreshToken.substring(0, dot), refreshToken.substring(dot + 1)};
+    }
+
+    private static String randomToken(int bytes) {
+        byte[] random = new byte[bytes];
+        RANDOM.nextBytes(random);
+        return ENCODER.encodeToString(random);
+    }
+
+    private static String hash(String secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(digest.digest(secret.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Tracks revoked token ids (jti). Redis holds the authoritative set with a TTL equal to each
+ * token's remaining lifetime; every node mirrors it in a Bloom filter kept current through
+ * pub/sub, so only Bloom hits pay for a Redis round trip.
+ */
+@Service
+@ConditionalOnProperty(name = "jwt.revocation.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenRevocationService implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    static final String KEY_PREFIX = "revoked-token:";
+
+    @Value("${jwt.revocation.channel:user-service:token-revocations}")
+    private String channel;
+
+    @Value("${jwt.revocation.expected-revocations:100000}")
+    private long expectedRevocations;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private volatile BloomFilter revokedIds;
+
+    // Non-null while a rebuild scan is running so concurrent revocations land in both filters
+    private volatile BloomFilter rebuilding;
+
+    // Makes the swap atomic with respect to markRevoked, which could otherwise add to the old filter
+    // just before the swap and then find rebuilding already cleared, missing the new filter entirely
+    private final Object swapLock = new Object();
+
+    private Counter bloomHits;
+    private Counter confirmedRevocations;
+
+    @PostConstruct
+    void init() {
+        revokedIds = newFilter();
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+
+        if (meterRegistry != null) {
+            bloomHits = meterRegistry.counter("jwt.revocation.bloom.hits");
+            confirmedRevocations = meterRegistry.counter("jwt.revocation.confirmed");
+            Gauge.builder("jwt.revocation.bloom.entries", this, service -> service.revokedIds.getInsertions())
+                    .register(meterRegistry);
+            Gauge.builder("jwt.revocation.bloom.expected-fpp", this, service -> service.revokedIds.expectedFalsePositiveRate())
+                    .register(meterRegistry);
+        }
+    }
+
+    public void revoke(String jti, Date expiresAt) {
+        long remainingMillis = expiresAt.getTime() - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            return;
+        }
+        redisTemplate.opsForValue().set(KEY_PREFIX + jti, "1", Duration.ofMillis(remainingMillis));
+        markRevoked(jti);
+        redisTemplate.convertAndSend(channel, jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !revokedIds.mightContain(jti)) {
+            return false;
+        }
+
+        increment(bloomHits);
+        try {
+            boolean revoked = Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + jti));
+            if (revoked) {
+                increment(confirmedRevocations);
+            }
+            return revoked;
+        } catch (RuntimeException e) {
+            // Bloom hits are rare, so failing closed here only affects likely-revoked tokens
+            log.warn("Revocation check for {} failed, treating token as revoked: {}", jti, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        markRevoked(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    // Bloom filters cannot forget, so expired revocations are dropped by rebuilding from Redis
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:600000}",
+            initialDelayString = "${jwt.revocation.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        BloomFilter fresh = newFilter();
+        rebuilding = fresh;
+        try {
+            ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                cursor.forEachRemaining(key -> fresh.put(key.substring(KEY_PREFIX.length())));
+            }
+            synchronized (swapLock) {
+                revokedIds = fresh;
+                rebuilding = null;
+            }
+            log.debug("Rebuilt token revocation filter with {} entries", fresh.getInsertions());
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild token revocation filter from Redis: {}", e.getMessage());
+            synchronized (swapLock) {
+                rebuilding = null;
+            }
+        }
+    }
+
+    private void markRevoked(String jti) {
+        synchronized (swapLock) {
+            revokedIds.put(jti);
+            BloomFilter pending = rebuilding;
+            if (pending != null) {
+                pending.put(jti);
+            }
+        }
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.userservice.service;
+
+import io.jsonwebtoken.JwtException;
+
+public class TokenRevokedException extends JwtException {
+
+    public TokenRevokedException(String jti) {
+        super("Token has been revoked: " + jti);
+    }
+}
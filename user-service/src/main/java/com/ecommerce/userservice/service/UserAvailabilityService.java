@@ -0,0 +1,220 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.repository.UserBulkRepository;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.util.CuckooFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Answers username/email availability for signup forms. Every node keeps a cuckoo filter of the
+ * normalized usernames and emails in use: a filter miss means the value is free with no I/O,
+ * and only possible hits are confirmed against the database. The filter is warmed by a keyset
+ * scan at startup and then follows new rows by id, so users registered on other nodes or by an
+ * import show up within one sync interval; local registrations are added immediately. Ids are
+ * assigned before commit, so a row can become visible below the highest id already seen; each
+ * sync re-reads a trailing window of ids, and a periodic rebuild catches anything older.
+ */
+@Service
+public class UserAvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAvailabilityService.class);
+
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String EMAIL_PREFIX = "e:";
+    private static final int SCAN_PAGE_SIZE = 10_000;
+
+    @Value("${app.availability.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.availability.expected-users:1000000}")
+    private long expectedUsers;
+
+    @Value("${app.availability.sync-overlap-ids:10000}")
+    private long syncOverlapIds;
+
+    @Value("${app.availability.rebuild-interval-ms:3600000}")
+    private long rebuildIntervalMillis;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserBulkRepository userBulkRepository;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Null until the warm-up scan has finished; until then every check goes to the database
+    private volatile CuckooFilter filter;
+
+    // Non-null while a rebuild scan is running so concurrent registrations land in both filters
+    private volatile CuckooFilter rebuilding;
+
+    private volatile long lastSeenId;
+
+    private volatile long builtAtMillis;
+
+    private Counter answeredFromFilter;
+    private Counter answeredFromDatabase;
+    private Counter falsePositives;
+
+    @PostConstruct
+    void init() {
+        if (meterRegistry != null) {
+            answeredFromFilter = meterRegistry.counter("user.availability.checks", "answer", "filter");
+            answeredFromDatabase = meterRegistry.counter("user.availability.checks", "answer", "database");
+            falsePositives = meterRegistry.counter("user.availability.filter.false-positives");
+            Gauge.builder("user.availability.filter.entries", this, service -> service.stat(CuckooFilter::size))
+                    .register(meterRegistry);
+            Gauge.builder("user.availability.filter.memory", this, service -> service.stat(CuckooFilter::memoryBytes))
+                    .baseUnit("bytes").register(meterRegistry);
+            Gauge.builder("user.availability.filter.expected-fpp", this,
+                    service -> service.stat(CuckooFilter::expectedFalsePositiveRate)).register(meterRegistry);
+        }
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        if (!mightBeTaken(USERNAME_PREFIX + normalize(username))) {
+            return true;
+        }
+        return confirm(!userRepository.existsByUsername(username));
+    }
+
+    public boolean isEmailAvailable(String email) {
+        if (!mightBeTaken(EMAIL_PREFIX + normalize(email))) {
+            return true;
+        }
+        return confirm(!userRepository.existsByEmail(email));
+    }
+
+    // Called once a registration has committed, so this node stops offering the names right away
+    public void registered(String username, String email) {
+        CuckooFilter current = filter;
+        if (current != null) {
+            add(current, username, email);
+        }
+        CuckooFilter pending = rebuilding;
+        if (pending != null) {
+            add(pending, username, email);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) {
+            rebuild(expectedUsers);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.sync-interval-ms:5000}",
+            initialDelayString = "${app.availability.sync-interval-ms:5000}")
+    public void sync() {
+        CuckooFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        if (current.isSaturated()) {
+            // Filled past capacity: every check is going to the database until it is rebuilt larger
+            rebuild(current.size());
+            return;
+        }
+        if (System.currentTimeMillis() - builtAtMillis >= rebuildIntervalMillis) {
+            rebuild(current.size() / 2);
+            return;
+        }
+        try {
+            // Rows already in the filter are skipped by add, so the overlap only costs the reads
+            long seen = lastSeenId;
+            lastSeenId = Math.max(seen, scan(current, Math.max(0, seen - syncOverlapIds)));
+        } catch (RuntimeException e) {
+            log.warn("Could not sync username availability filter: {}", e.getMessage());
+        }
+    }
+
+    private void rebuild(long users) {
+        long start = System.nanoTime();
+        // Two keys per user, with headroom for growth before the next rebuild
+        CuckooFilter fresh = new CuckooFilter(Math.max(users, expectedUsers) * 3);
+        rebuilding = fresh;
+        try {
+            long lastId = scan(fresh, 0);
+            lastSeenId = lastId;
+            filter = fresh;
+            builtAtMillis = System.currentTimeMillis();
+            log.info("Built username availability filter: {} entries, {} KiB, expected false-positive rate {} in {} ms",
+                    fresh.size(), fresh.memoryBytes() / 1024, String.format("%.5f", fresh.expectedFalsePositiveRate()),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Could not build username availability filter: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private long scan(CuckooFilter target, long afterId) {
+        long lastId = afterId;
+        while (true) {
+            long pageEnd = userBulkRepository.scanIdentitiesAfter(lastId, SCAN_PAGE_SIZE,
+                    (username, email) -> add(target, username, email));
+            if (pageEnd == lastId) {
+                return lastId;
+            }
+            lastId = pageEnd;
+        }
+    }
+
+    // Values the filter already reports are not added again, so repeated syncs never pile up copies
+    private static void add(CuckooFilter target, String username, String email) {
+        for (String key : new String[]{USERNAME_PREFIX + normalize(username), EMAIL_PREFIX + normalize(email)}) {
+            if (!target.mightContain(key)) {
+                target.put(key);
+            }
+        }
+    }
+
+    private boolean mightBeTaken(String key) {
+        CuckooFilter current = filter;
+        if (current == null || current.mightContain(key)) {
+            return true;
+        }
+        increment(answeredFromFilter);
+        return false;
+    }
+
+    private boolean confirm(boolean available) {
+        increment(answeredFromDatabase);
+        if (available && filter != null) {
+            increment(falsePositives);
+        }
+        return available;
+    }
+
+    private double stat(ToDoubleFunction<CuckooFilter> metric) {
+        CuckooFilter current = filter;
+        return current == null ? 0 : metric.applyAsDouble(current);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.ProfileView;
+import com.ecommerce.userservice.dto.UserSearchCriteria;
+import com.ecommerce.userservice.repository.UserBulkRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Admin listing of users. Rows go from the JDBC cursor straight into a streaming JSON generator,
+ * one at a time, so a listing of any size runs in constant heap. The read-only transaction is
+ * what lets the driver fetch in chunks, and it may be served by a replica.
+ */
+@Service
+public class UserDirectoryService {
+
+    @Value("${app.admin.user-listing.fetch-size:1000}")
+    private int fetchSize;
+
+    @Autowired
+    private UserBulkRepository userBulkRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Writes {"users": [...], "nextCursor": "..."}. nextCursor is only present when criteria
+     * has a limit and more users follow.
+     */
+    public void writeUsers(UserSearchCriteria criteria, OutputStream outputStream) throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("users");
+
+            ProfileView[] last = new ProfileView[1];
+            boolean[] more = new boolean[1];
+            long[] written = new long[1];
+            transaction.executeWithoutResult(status -> userBulkRepository.scanUsers(criteria, fetchSize, user -> {
+                if (criteria.limit() != null && written[0] == criteria.limit()) {
+                    more[0] = true;
+                    return;
+                }
+                try {
+                    generator.writeObject(user);
+                    // Flush each fetched chunk so the client sees progress and nothing piles up here
+                    if (++written[0] % fetchSize == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                last[0] = user;
+            }));
+
+            generator.writeEndArray();
+            if (more[0]) {
+                generator.writeStringField("nextCursor",
+                        UserSearchCriteria.encodeCursor(last[0].createdAt(), last[0].id()));
+            }
+            generator.writeEndObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.UserImportReportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Command line import, for files too large to push through the admin endpoint:
+ * java -jar user-service.jar --spring.main.web-application-type=none --app.import.file=users.csv
+ */
+@Component
+@ConditionalOnProperty(name = "app.import.file")
+public class UserImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportRunner.class);
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${app.import.file}")
+    private Path file;
+
+    // Re-running with the same job id resumes after the last committed row
+    @Value("${app.import.job-id:}")
+    private String jobId;
+
+    @Value("${app.import.format:}")
+    private String format;
+
+    @Value("${app.import.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String job = jobId.isBlank() ? file.getFileName().toString() : jobId;
+        UserImportService.Format importFormat = format.isBlank()
+                ? (file.toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? UserImportService.Format.CSV : UserImportService.Format.JSONL)
+                : UserImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+
+        UserImportReportDto report;
+        try (InputStream input = Files.newInputStream(file)) {
+            report = userImportService.importUsers(job, importFormat, input);
+        }
+        for (UserImportReportDto.RejectedRow reject : report.getRejects()) {
+            log.warn("Import {} row {} rejected: {}", job, reject.getRow(), reject.getReason());
+        }
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.config.PasswordHashCalibrator;
+import com.ecommerce.userservice.dto.UserImportReportDto;
+import com.ecommerce.userservice.dto.UserImportReportDto.RejectedRow;
+import com.ecommerce.userservice.dto.UserRegistrationDto;
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserImportCheckpoint;
+import com.ecommerce.userservice.repository.UserBulkRepository;
+import com.ecommerce.userservice.repository.UserImportCheckpointRepository;
+import com.ecommerce.userservice.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk loads users from CSV (with a header row) or JSON Lines. Input is read one row at a time
+ * and validated with the registration rules; batches are hashed in parallel on the import pool
+ * and written in input order, each together with the job checkpoint, so memory stays bounded by
+ * the in-flight batches and an interrupted job resumes after its last committed row.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final int MAX_REPORTED_REJECTS = 1000;
+    private static final long PROGRESS_INTERVAL_NANOS = 10_000_000_000L;
+
+    public enum Format {
+        CSV, JSONL
+    }
+
+    @Autowired
+    private UserBulkRepository userBulkRepository;
+
+    @Autowired
+    private UserImportCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("userImportExecutor")
+    private ThreadPoolTaskExecutor importExecutor;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.max-in-flight-batches:0}")
+    private int maxInFlightBatches;
+
+    private record ImportRow(long row, User user, String rawPassword) {
+    }
+
+    private record HashedBatch(long lastRow, List<ImportRow> rows, List<RejectedRow> rejects) {
+    }
+
+    // A parsed input row: its fields keyed by normalized column name, or why it could not be read
+    private record SourceRow(Map<String, String> fields, String error) {
+    }
+
+    private interface RowSource extends Closeable {
+        SourceRow next() throws IOException;
+    }
+
+    private static class InvalidRowException extends RuntimeException {
+        InvalidRowException(String message) {
+            super(message);
+        }
+    }
+
+    private static class PendingBatch {
+        private final List<ImportRow> rows = new ArrayList<>();
+        private final List<RejectedRow> rejects = new ArrayList<>();
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> emails = new HashSet<>();
+        private long lastRow;
+
+        int size() {
+            return rows.size() + rejects.size();
+        }
+    }
+
+    public UserImportReportDto importUsers(String jobId, Format format, InputStream input) throws IOException {
+        UserImportCheckpoint checkpoint = checkpointRepository.findById(jobId)
+                .orElseGet(() -> new UserImportCheckpoint(jobId));
+        long resumeAfter = checkpoint.getRowNumber();
+
+        UserImportReportDto report = new UserImportReportDto(jobId);
+        report.setResumedAfterRow(resumeAfter);
+        if (checkpoint.isCompleted()) {
+            report.setCompleted(true);
+            return report;
+        }
+        if (resumeAfter > 0) {
+            log.info("Resuming import {} after row {}", jobId, resumeAfter);
+        }
+
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        int window = maxInFlightBatches > 0 ? maxInFlightBatches : importExecutor.getMaxPoolSize() * 2;
+        Deque<CompletableFuture<HashedBatch>> inFlight = new ArrayDeque<>();
+        long start = System.nanoTime();
+        long lastProgress = start;
+        long rowNumber = 0;
+
+        try (RowSource source = open(format, input)) {
+            PendingBatch batch = new PendingBatch();
+            SourceRow next;
+            while ((next = source.next()) != null) {
+                rowNumber++;
+                // Rows up to the checkpoint were committed by an earlier run; blank lines are not rows
+                if (rowNumber <= resumeAfter || (next.error() == null && next.fields().isEmpty())) {
+                    continue;
+                }
+                report.setRowsRead(report.getRowsRead() + 1);
+                batch.lastRow = rowNumber;
+                try {
+                    add(batch, parse(rowNumber, next));
+                } catch (InvalidRowException e) {
+                    batch.rejects.add(new RejectedRow(rowNumber, e.getMessage()));
+                }
+
+                if (batch.size() >= batchSize) {
+                    inFlight.add(hashAsync(batch));
+                    batch = new PendingBatch();
+                    while (inFlight.size() > window) {
+                        write(await(inFlight.poll()), checkpoint, report, transactions);
+                    }
+                    if (System.nanoTime() - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                        lastProgress = System.nanoTime();
+                        logProgress(report, start);
+                    }
+                }
+            }
+            if (batch.size() > 0) {
+                inFlight.add(hashAsync(batch));
+            }
+            while (!inFlight.isEmpty()) {
+                write(await(inFlight.poll()), checkpoint, report, transactions);
+            }
+        }
+
+        checkpoint.setCompleted(true);
+        checkpointRepository.save(checkpoint);
+        report.setCompleted(true);
+        logProgress(report, start);
+        return report;
+    }
+
+    private ImportRow parse(long rowNumber, SourceRow source) {
+        if (source.error() != null) {
+            throw new InvalidRowException(source.error());
+        }
+        Map<String, String> fields = source.fields();
+        String passwordHash = blankToNull(fields.get("passwordhash"));
+
+        UserRegistrationDto registration = new UserRegistrationDto(fields.get("username"), fields.get("email"),
+                fields.get("password"), fields.get("firstname"), fields.get("lastname"));
+        registration.setPhoneNumber(blankToNull(fields.get("phonenumber")));
+
+        String problems = validator.validate(registration).stream()
+                // A pre-hashed row carries no plain password to check
+                .filter(violation -> passwordHash == null || !"password".equals(violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        if (!problems.isEmpty()) {
+            throw new InvalidRowException(problems);
+        }
+        if (passwordHash != null && !PasswordHashCalibrator.isSupportedHash(passwordHash)) {
+            throw new InvalidRowException("Unsupported password hash format");
+        }
+
+        User user = new User(registration.getUsername(), registration.getEmail(), passwordHash,
+                registration.getFirstName(), registration.getLastName());
+        user.setPhoneNumber(registration.getPhoneNumber());
+        user.setRole(role(fields.get("role")));
+        return new ImportRow(rowNumber, user, passwordHash == null ? registration.getPassword() : null);
+    }
+
+    private static User.Role role(String value) {
+        if (value == null || value.isBlank()) {
+            return User.Role.USER;
+        }
+        try {
+            return User.Role.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRowException("Unknown role: " + value);
+        }
+    }
+
+    // Duplicates inside one batch would be indistinguishable in the insert's RETURNING set
+    private static void add(PendingBatch batch, ImportRow row) {
+        if (!batch.usernames.add(row.user().getUsername()) || !batch.emails.add(row.user().getEmail())) {
+            throw new InvalidRowException("Duplicate username or email earlier in the import");
+        }
+        batch.rows.add(row);
+    }
+
+    private CompletableFuture<HashedBatch> hashAsync(PendingBatch batch) {
+        return CompletableFuture.supplyAsync(() -> {
+            for (ImportRow row : batch.rows) {
+                if (row.rawPassword() != null) {
+                    row.user().setPassword(passwordEncoder.encode(row.rawPassword()));
+                }
+            }
+            return new HashedBatch(batch.lastRow, batch.rows, batch.rejects);
+        }, importExecutor);
+    }
+
+    private void write(HashedBatch batch, UserImportCheckpoint checkpoint, UserImportReportDto report,
+                       TransactionTemplate transactions) {
+        List<RejectedRow> rejects = new ArrayList<>(batch.rejects());
+        List<User> users = batch.rows().stream().map(ImportRow::user).toList();
+
+        transactions.executeWithoutResult(status -> {
+            Set<String> inserted = userBulkRepository.insertIgnoringConflicts(users);
+            for (ImportRow row : batch.rows()) {
+                if (!inserted.contains(row.user().getUsername())) {
+                    rejects.add(new RejectedRow(row.row(), "Username or email already exists"));
+                }
+            }
+            checkpoint.setRowNumber(batch.lastRow());
+            checkpoint.setImported(checkpoint.getImported() + inserted.size());
+            checkpoint.setRejected(checkpoint.getRejected() + rejects.size());
+            checkpointRepository.save(checkpoint);
+        });
+
+        long imported = users.size() - (rejects.size() - batch.rejects().size());
+        report.setImported(report.getImported() + imported);
+        report.setRejected(report.getRejected() + rejects.size());
+        rejects.sort(Comparator.comparingLong(RejectedRow::getRow));
+        for (Iterator<RejectedRow> it = rejects.iterator(); it.hasNext()
+                && report.getRejects().size() < MAX_REPORTED_REJECTS; ) {
+            report.getRejects().add(it.next());
+        }
+        if (meterRegistry != null) {
+            meterRegistry.counter("user.import.rows", "outcome", "imported").increment(imported);
+            meterRegistry.counter("user.import.rows", "outcome", "rejected").increment(rejects.size());
+        }
+    }
+
+    private static HashedBatch await(CompletableFuture<HashedBatch> batch) {
+        try {
+            return batch.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Password hashing failed during import: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static void logProgress(UserImportReportDto report, long start) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond((report.getImported() + report.getRejected()) * 1e9 / elapsedNanos);
+        log.info("Import {}: {} rows read, {} imported, {} rejected, {} rows/s", report.getJobId(),
+                report.getRowsRead(), report.getImported(), report.getRejected(), Math.round(report.getRowsPerSecond()));
+    }
+
+    private RowSource open(Format format, InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return format == Format.CSV ? csvSource(reader) : jsonLinesSource(reader);
+    }
+
+    private static RowSource csvSource(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        List<String> columns = header == null ? List.of() : header.stream().map(UserImportService::normalize).toList();
+        return new RowSource() {
+            @Override
+            public SourceRow next() throws IOException {
+                List<String> record = csv.next();
+                if (record == null) {
+                    return null;
+                }
+                if (record.size() == 1 && record.get(0).isEmpty()) {
+                    return new SourceRow(Map.of(), null);
+                }
+                if (record.size() != columns.size()) {
+                    return new SourceRow(null, "Expected " + columns.size() + " columns but found " + record.size());
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < columns.size(); i++) {
+                    fields.put(columns.get(i), record.get(i));
+                }
+                return new SourceRow(fields, null);
+            }
+
+            @Override
+            public void close() throws IOException {
+                csv.close();
+            }
+        };
+    }
+
+    private RowSource jsonLinesSource(BufferedReader reader) {
+        return new RowSource() {
+            @Override
+            public SourceRow next() throws IOException {
+                String line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                if (line.isBlank()) {
+                    return new SourceRow(Map.of(), null);
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    return new SourceRow(null, "Malformed JSON: " + e.getOriginalMessage());
+                }
+                if (!node.isObject()) {
+                    return new SourceRow(null, "Expected a JSON object");
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> field = it.next();
+                    if (field.getValue().isContainerNode()) {
+                        return new SourceRow(null, "Field " + field.getKey() + " must be a scalar");
+                    }
+                    fields.put(normalize(field.getKey()), field.getValue().isNull() ? null : field.getValue().asText());
+                }
+                return new SourceRow(fields, null);
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    // firstName, first_name and FIRST_NAME all name the same column
+    private static String normalize(String column) {
+        return column.replace("\uFEFF", "").trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -1,25 +1,61 @@
 package com.ecommerce.userservice.service;
 
+import com.ecommerce.userservice.config.ReadYourWritesTracker;
 import com.ecommerce.userservice.dto.AuthResponseDto;
+import com.ecommerce.userservice.dto.AuthView;
 import com.ecommerce.userservice.dto.LoginRequestDto;
+import com.ecommerce.userservice.dto.ProfileView;
+import com.ecommerce.userservice.dto.PublicUserView;
+import com.ecommerce.userservice.dto.TokenIntrospectionDto;
+import com.ecommerce.userservice.dto.UserEventDto;
 import com.ecommerce.userservice.dto.UserRegistrationDto;
+import com.ecommerce.userservice.dto.UserSnapshot;
+import com.ecommerce.userservice.dto.UserVersion;
 import com.ecommerce.userservice.model.User;
 import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.util.SingleFlight;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+    private static final int INTROSPECTION_CHUNK_SIZE = 64;
 
     @Autowired
     private UserRepository userRepository;
@@ -30,26 +66,121 @@ public class UserService implements UserDetailsService {
     @Autowired
     private JwtService jwtService;
 
+    // Lazy: the authentication provider depends on this service for user lookups and rehashing
     @Autowired
+    @Lazy
     private AuthenticationManager authenticationManager;
 
+    @Autowired(required = false)
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    // Absent when app.user-cache.enabled is false; reads then go straight to the database
+    @Autowired(required = false)
+    private UserSnapshotCache userSnapshotCache;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // How long a request waits on another request's load of the same user before giving up
+    @Value("${app.user-cache.coalescing-timeout:2s}")
+    private Duration coalescingTimeout;
+
+    // Cache misses for the same user share one database load, keyed "id:<id>" or "username:<lowercased>"
+    private SingleFlight<String, Optional<UserSnapshot>> snapshotLoads;
+
+    @Autowired
+    @Qualifier("tokenIntrospectionExecutor")
+    private Executor tokenIntrospectionExecutor;
+
+    @Autowired
+    @Qualifier("passwordHashingExecutor")
+    private Executor passwordHashingExecutor;
+
+    // When true, /validate confirms every token against the database instead of trusting its claims
+    @Value("${jwt.introspection.strict:false}")
+    private boolean strictIntrospection;
+
+    @PostConstruct
+    void init() {
+        snapshotLoads = new SingleFlight<>(coalescingTimeout);
+        if (meterRegistry != null) {
+            FunctionCounter.builder("user.lookup.loads", snapshotLoads, SingleFlight::leaders)
+                    .register(meterRegistry);
+            FunctionCounter.builder("user.lookup.coalesced", snapshotLoads, SingleFlight::coalesced)
+                    .description("Lookups that waited on another request's load instead of querying")
+                    .register(meterRegistry);
+            FunctionCounter.builder("user.lookup.coalesced.timeouts", snapshotLoads, SingleFlight::timeouts)
+                    .register(meterRegistry);
+            Gauge.builder("user.lookup.in-flight", snapshotLoads, SingleFlight::inFlight).register(meterRegistry);
+        }
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        if (userSnapshotCache != null && userSnapshotCache.isUsernameKnownMissing(username)) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        Optional<User> user = findUser(username);
+        if (user.isEmpty() && userSnapshotCache != null) {
+            userSnapshotCache.usernameMissing(username);
+        }
+        return user.orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
     }
 
-    public AuthResponseDto registerUser(UserRegistrationDto registrationDto) {
-        // Check if user already exists
-        if (userRepository.existsByUsername(registrationDto.getUsername())) {
-            throw new RuntimeException("Username already exists");
+    // Hashing runs on the bounded hashing pool; a full queue throws RejectedExecutionException immediately
+    public CompletableFuture<AuthResponseDto> registerUserAsync(UserRegistrationDto registrationDto) {
+        return CompletableFuture.supplyAsync(() -> registerUser(registrationDto), passwordHashingExecutor);
+    }
+
+    // Throttled attempts are refused before they reach the hashing pool or the user lookup
+    public CompletableFuture<AuthResponseDto> loginUserAsync(LoginRequestDto loginRequest, String clientAddress) {
+        long retryAfterMillis = loginAttemptLimiter.tryAcquire(loginRequest.getUsername(), clientAddress);
+        if (retryAfterMillis > 0) {
+            throw new LoginThrottledException(retryAfterMillis);
         }
 
-        if (userRepository.existsByEmail(registrationDto.getEmail())) {
-            throw new RuntimeException("Email already exists");
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                AuthResponseDto response = loginUser(loginRequest);
+                loginAttemptLimiter.onSuccess(loginRequest.getUsername());
+                return response;
+            }, passwordHashingExecutor);
+        } catch (RejectedExecutionException e) {
+            // Turned away with a 503 before any password was checked; the caller's attempt is not spent
+            loginAttemptLimiter.onRejected(loginRequest.getUsername(), clientAddress);
+            throw e;
         }
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = findUser(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found with username: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        User saved = userRepository.save(user);
+        cacheSaved(saved);
+        return saved;
+    }
 
-        // Create new user
+    public AuthResponseDto registerUser(UserRegistrationDto registrationDto) {
         User user = new User();
         user.setUsername(registrationDto.getUsername());
         user.setEmail(registrationDto.getEmail());
@@ -58,22 +189,23 @@ public class UserService implements UserDetailsService {
         user.setLastName(registrationDto.getLastName());
         user.setPhoneNumber(registrationDto.getPhoneNumber());
 
-        User savedUser = userRepository.save(user);
-
-        // Generate JWT token
-        String token = jwtService.generateToken(savedUser);
-        LocalDateTime expiresAt = LocalDateTime.now().plusHours(24);
+        // A single INSERT; the unique constraints reject duplicates, with no check-then-insert race.
+        // The event commits with the user, so downstream services hear about exactly the users that exist.
+        User savedUser;
+        try {
+            savedUser = new TransactionTemplate(transactionManager).execute(status -> {
+                User saved = userRepository.saveAndFlush(user);
+                outboxService.record(UserEventDto.Type.USER_REGISTERED, saved);
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw classifyDuplicate(e);
+        }
+        userAvailabilityService.registered(savedUser.getUsername(), savedUser.getEmail());
+        readYourWritesTracker.recordWrite(savedUser.getUsername());
+        cacheSaved(savedUser);
 
-        return new AuthResponseDto(
-                token,
-                savedUser.getId(),
-                savedUser.getUsername(),
-                savedUser.getEmail(),
-                savedUser.getFirstName(),
-                savedUser.getLastName(),
-                savedUser.getRole().name(),
-                expiresAt
-        );
+        return createAuthResponse(savedUser, jwtService.generateToken(savedUser), issueRefreshToken(savedUser));
     }
 
     public AuthResponseDto loginUser(LoginRequestDto loginRequest) {
@@ -86,14 +218,64 @@ public class UserService implements UserDetailsService {
         );
 
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        User user = userRepository.findByUsername(userDetails.getUsername())
+        User user = findUser(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Generate JWT token
-        String token = jwtService.generateToken(userDetails);
-        LocalDateTime expiresAt = LocalDateTime.now().plusHours(24);
+        return createAuthResponse(user, jwtService.generateToken(userDetails), issueRefreshToken(user));
+    }
+
+    // Renews a session from a refresh token: one Redis script and one user lookup, no password hash
+    public AuthResponseDto refreshToken(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = getUserByUsername(rotation.username());
+        if (!user.isEnabled()) {
+            refreshTokenService.revoke(rotation.refreshToken());
+            throw new RuntimeException("User account is disabled");
+        }
+
+        return createAuthResponse(user, jwtService.generateToken(user), rotation.refreshToken());
+    }
+
+    public void revokeRefreshToken(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
+
+    private RuntimeException classifyDuplicate(DataIntegrityViolationException e) {
+        String constraint = null;
+        for (Throwable cause = e; cause != null && constraint == null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                constraint = violation.getConstraintName();
+            }
+        }
+        // Fall back to the driver message, which reads "Key (lower(username::text))=..." for the indexes
+        String detail = (constraint + " " + e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (detail.contains(User.USERNAME_CONSTRAINT) || detail.contains("(username")) {
+            return new RuntimeException("Username already exists");
+        }
+        if (detail.contains(User.EMAIL_CONSTRAINT) || detail.contains("(email")) {
+            return new RuntimeException("Email already exists");
+        }
+        return e;
+    }
+
+    // Best effort, like the other steps after the commit: without a refresh token the client still
+    // has its access token and logs in again when it expires, rather than seeing a failed registration
+    private String issueRefreshToken(User user) {
+        if (!refreshTokenService.isEnabled()) {
+            return null;
+        }
+        try {
+            return refreshTokenService.issue(user.getUsername());
+        } catch (RuntimeException e) {
+            log.warn("Could not issue refresh token for {}: {}", user.getUsername(), e.getMessage());
+            return null;
+        }
+    }
+
+    private AuthResponseDto createAuthResponse(User user, String token, String refreshToken) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(jwtService.getExpirationMillis()));
 
-        return new AuthResponseDto(
+        AuthResponseDto response = new AuthResponseDto(
                 token,
                 user.getId(),
                 user.getUsername(),
@@ -103,20 +285,119 @@ public class UserService implements UserDetailsService {
                 user.getRole().name(),
                 expiresAt
         );
+        response.setRefreshToken(refreshToken);
+        return response;
     }
 
+    // Returns a detached copy from the user cache, without password; load through the repository to modify a user
     public User getUserById(Long userId) {
-        return userRepository.findById(userId)
+        if (userSnapshotCache != null) {
+            return snapshotById(userId).toUser();
+        }
+        return readOnly(() -> userRepository.findById(userId))
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
     }
 
     public User getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
+        if (userSnapshotCache != null) {
+            return snapshotByUsername(username).toUser();
+        }
+        return readOnly(() -> findUser(username))
+                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
+    }
+
+    // Names from tokens are stored spellings and hit the natural-id cache; typed ones may differ in case
+    private Optional<User> findUser(String username) {
+        return userRepository.findByNaturalId(username)
+                .or(() -> userRepository.findByUsername(username));
+    }
+
+    public AuthView getAuthView(String username) {
+        if (userSnapshotCache != null) {
+            return snapshotByUsername(username).toAuthView();
+        }
+        return readOnly(() -> userRepository.findAuthViewByUsername(username))
+                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
+    }
+
+    // Straight from the primary, past every cache: for checks that must see a demotion immediately
+    public Optional<AuthView> findCurrentAuthView(String username) {
+        return userRepository.findAuthViewByUsername(username);
+    }
+
+    public ProfileView getProfile(String username) {
+        if (userSnapshotCache != null) {
+            return snapshotByUsername(username).toProfileView();
+        }
+        return readOnly(() -> userRepository.findProfileViewByUsername(username))
+                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
+    }
+
+    public PublicUserView getPublicUser(Long userId) {
+        if (userSnapshotCache != null) {
+            return snapshotById(userId).toPublicView();
+        }
+        return readOnly(() -> userRepository.findPublicViewById(userId))
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+    }
+
+    // For conditional GETs: decided from the cache or a two-column read, without loading the user
+    public UserVersion getVersion(Long userId) {
+        if (userSnapshotCache != null) {
+            return snapshotById(userId).toVersion();
+        }
+        return readOnly(() -> userRepository.findVersionById(userId))
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+    }
+
+    public UserVersion getVersionByUsername(String username) {
+        if (userSnapshotCache != null) {
+            return snapshotByUsername(username).toVersion();
+        }
+        return readOnly(() -> userRepository.findVersionByUsername(username))
+                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
+    }
+
+    private UserSnapshot snapshotById(Long userId) {
+        return userSnapshotCache.getById(userId, () -> snapshotLoads.execute("id:" + userId,
+                        () -> missConfirmedOnPrimary(() -> userRepository.findById(userId).map(UserSnapshot::from))))
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+    }
+
+    private UserSnapshot snapshotByUsername(String username) {
+        return userSnapshotCache.getByUsername(username, () -> snapshotLoads.execute(
+                        "username:" + username.toLowerCase(Locale.ROOT),
+                        () -> missConfirmedOnPrimary(() -> findUser(username).map(UserSnapshot::from))))
                 .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
     }
 
+    // Read-only transactions may be served by a replica when replica routing is enabled. Started
+    // only once the caches have missed, so cache hits never check out a connection.
+    private <T> T readOnly(Supplier<T> query) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> query.get());
+    }
+
+    // The cache remembers misses, so one from a lagging replica (say, a user registered on another
+    // node moments ago) would hide that user for the whole negative TTL; the primary has the last word
+    private <T> Optional<T> missConfirmedOnPrimary(Supplier<Optional<T>> query) {
+        Optional<T> result = readOnly(query);
+        if (result.isPresent()) {
+            return result;
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> query.get());
+    }
+
+    private void cacheSaved(User user) {
+        if (userSnapshotCache != null) {
+            userSnapshotCache.saved(UserSnapshot.from(user));
+        }
+    }
+
     public User updateUserProfile(Long userId, UserRegistrationDto updateDto) {
-        User user = getUserById(userId);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
         if (updateDto.getFirstName() != null) {
             user.setFirstName(updateDto.getFirstName());
@@ -128,7 +409,14 @@ public class UserService implements UserDetailsService {
             user.setPhoneNumber(updateDto.getPhoneNumber());
         }
 
-        return userRepository.save(user);
+        User savedUser = new TransactionTemplate(transactionManager).execute(status -> {
+            User saved = userRepository.save(user);
+            outboxService.record(UserEventDto.Type.USER_UPDATED, saved);
+            return saved;
+        });
+        readYourWritesTracker.recordWrite(savedUser.getUsername());
+        cacheSaved(savedUser);
+        return savedUser;
     }
 
     public boolean validateToken(String token) {
@@ -138,4 +426,58 @@ public class UserService implements UserDetailsService {
     public String getUsernameFromToken(String token) {
         return jwtService.extractUsername(token);
     }
-} 
\ No newline at end of file
+
+    public void revokeToken(String token) {
+        if (tokenRevocationService == null) {
+            throw new RuntimeException("Token revocation is disabled");
+        }
+
+        VerifiedToken verified = jwtService.verify(token);
+        if (verified.id() == null) {
+            throw new RuntimeException("Token has no id and cannot be revoked");
+        }
+        tokenRevocationService.revoke(verified.id(), verified.expiration());
+    }
+
+    public TokenIntrospectionDto introspectToken(String token) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenIntrospectionDto.inactive();
+        }
+
+        // Tokens issued before identity claims were embedded still need a lookup
+        Integer version = verified.version();
+        if (strictIntrospection || version == null || version < JwtService.TOKEN_VERSION) {
+            AuthView user = getAuthView(verified.subject());
+            if (!user.enabled()) {
+                return TokenIntrospectionDto.inactive();
+            }
+            return TokenIntrospectionDto.active(user.id(), user.username(), user.role().name());
+        }
+
+        return TokenIntrospectionDto.active(verified.userId(), verified.subject(), verified.role());
+    }
+
+    // Splits the batch into chunks checked in parallel; futures are returned in input order
+    public List<CompletableFuture<List<TokenIntrospectionDto>>> introspectTokens(List<String> tokens) {
+        List<CompletableFuture<List<TokenIntrospectionDto>>> chunks = new ArrayList<>();
+        for (int from = 0; from < tokens.size(); from += INTROSPECTION_CHUNK_SIZE) {
+            List<String> chunk = tokens.subList(from, Math.min(from + INTROSPECTION_CHUNK_SIZE, tokens.size()));
+            chunks.add(CompletableFuture.supplyAsync(
+                    () -> chunk.stream().map(this::introspectTokenSafely).toList(),
+                    tokenIntrospectionExecutor
+            ));
+        }
+        return chunks;
+    }
+
+    private TokenIntrospectionDto introspectTokenSafely(String token) {
+        try {
+            return introspectToken(token);
+        } catch (RuntimeException e) {
+            return TokenIntrospectionDto.error(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.UserSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache of user snapshots, by id and by username. L1 is a small Caffeine cache per node;
+ * L2 is Redis, shared by all nodes. Misses are loaded from the database and added to L2 only if
+ * absent, while a save overwrites L2, so a load that read an older row (say from a lagging
+ * replica) can never replace what a writer just stored. Each save is broadcast over pub/sub and
+ * other nodes drop their L1 copies; if a message is lost, the L1 TTL bounds the staleness.
+ * Lookups that found nothing are remembered locally for a few seconds, bounded by memory rather
+ * than entry count, so repeated probes for unknown users stop reaching the database.
+ */
+@Service
+@ConditionalOnProperty(name = "app.user-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class UserSnapshotCache implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSnapshotCache.class);
+
+    private static final String ID_KEY_PREFIX = "user-snapshot:id:";
+    private static final String USERNAME_KEY_PREFIX = "user-snapshot:username:";
+
+    // Nothing longer can be a stored username, so such keys are not worth memory
+    private static final int MAX_NEGATIVE_KEY_LENGTH = 256;
+
+    @Value("${app.user-cache.channel:user-service:user-invalidations}")
+    private String channel;
+
+    @Value("${app.user-cache.local-max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${app.user-cache.local-ttl:30s}")
+    private Duration localTtl;
+
+    @Value("${app.user-cache.shared-ttl:10m}")
+    private Duration sharedTtl;
+
+    @Value("${app.user-cache.negative-ttl:10s}")
+    private Duration negativeTtl;
+
+    @Value("${app.user-cache.negative-max-memory:4MB}")
+    private DataSize negativeMaxMemory;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Lets a node skip its own broadcasts; it already updated its L1 when it saved
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private Cache<Long, UserSnapshot> byId;
+    private Cache<String, UserSnapshot> byUsername;
+
+    // Keys of lookups that found no user, weighed by estimated heap use
+    private Cache<String, Boolean> missing;
+
+    private final TierStats local = new TierStats();
+    private final TierStats shared = new TierStats();
+    private final TierStats negative = new TierStats();
+    private Timer loadTimer;
+    private Timer invalidationLag;
+
+    @PostConstruct
+    void init() {
+        byId = Caffeine.newBuilder().maximumSize(localMaxSize).expireAfterWrite(localTtl).build();
+        byUsername = Caffeine.newBuilder().maximumSize(localMaxSize).expireAfterWrite(localTtl).build();
+        missing = Caffeine.newBuilder()
+                .maximumWeight(negativeMaxMemory.toBytes())
+                .weigher((String key, Boolean value) -> estimatedBytes(key))
+                .expireAfterWrite(negativeTtl)
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+
+        if (meterRegistry != null) {
+            local.register(meterRegistry, "local");
+            shared.register(meterRegistry, "shared");
+            negative.register(meterRegistry, "negative");
+            Gauge.builder("user.cache.negative.memory", missing,
+                            cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                    .baseUnit("bytes").register(meterRegistry);
+            loadTimer = meterRegistry.timer("user.cache.load");
+            invalidationLag = Timer.builder("user.cache.invalidation.lag")
+                    .description("Time from a save on one node to its invalidation arriving on another")
+                    .register(meterRegistry);
+        }
+    }
+
+    public Optional<UserSnapshot> getById(Long id, Supplier<Optional<UserSnapshot>> loader) {
+        UserSnapshot snapshot = byId.getIfPresent(id);
+        if (local.record(snapshot)) {
+            return Optional.of(snapshot);
+        }
+        return lookup(ID_KEY_PREFIX + id, loader);
+    }
+
+    public Optional<UserSnapshot> getByUsername(String username, Supplier<Optional<UserSnapshot>> loader) {
+        String key = normalize(username);
+        UserSnapshot snapshot = byUsername.getIfPresent(key);
+        if (local.record(snapshot)) {
+            return Optional.of(snapshot);
+        }
+        return lookup(USERNAME_KEY_PREFIX + key, loader);
+    }
+
+    // For lookups that bypass the snapshot tiers, such as authentication, which needs the password hash
+    public boolean isUsernameKnownMissing(String username) {
+        return negative.record(missing.getIfPresent(USERNAME_KEY_PREFIX + normalize(username)));
+    }
+
+    public void usernameMissing(String username) {
+        rememberMissing(USERNAME_KEY_PREFIX + normalize(username));
+    }
+
+    // Call once the save has committed
+    public void saved(UserSnapshot snapshot) {
+        putLocal(snapshot);
+        forgetMissing(snapshot.id(), normalize(snapshot.username()));
+        try {
+            String json = objectMapper.writeValueAsString(snapshot);
+            redisTemplate.opsForValue().set(ID_KEY_PREFIX + snapshot.id(), json, sharedTtl);
+            redisTemplate.opsForValue().set(USERNAME_KEY_PREFIX + normalize(snapshot.username()), json, sharedTtl);
+            redisTemplate.convertAndSend(channel, String.join("|",
+                    nodeId, String.valueOf(snapshot.id()), normalize(snapshot.username()),
+                    String.valueOf(System.currentTimeMillis())));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not publish user {} to the shared cache: {}", snapshot.id(), e.getMessage());
+        }
+    }
+
+    // Message format: nodeId|userId|normalizedUsername|publishedAtMillis
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || parts[0].equals(nodeId)) {
+            return;
+        }
+        byId.invalidate(Long.valueOf(parts[1]));
+        byUsername.invalidate(parts[2]);
+        forgetMissing(Long.valueOf(parts[1]), parts[2]);
+        if (invalidationLag != null) {
+            // Across nodes this includes clock skew, so read it as a trend rather than exact
+            long lagMillis = System.currentTimeMillis() - Long.parseLong(parts[3]);
+            invalidationLag.record(Math.max(0, lagMillis), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Optional<UserSnapshot> lookup(String key, Supplier<Optional<UserSnapshot>> loader) {
+        if (negative.record(missing.getIfPresent(key))) {
+            return Optional.empty();
+        }
+        UserSnapshot snapshot = readShared(key);
+        if (shared.record(snapshot)) {
+            putLocal(snapshot);
+            return Optional.of(snapshot);
+        }
+
+        long start = System.nanoTime();
+        Optional<UserSnapshot> loaded = loader.get();
+        if (loadTimer != null) {
+            loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        loaded.ifPresentOrElse(value -> {
+            putLocal(value);
+            writeSharedIfAbsent(value);
+        }, () -> rememberMissing(key));
+        return loaded;
+    }
+
+    private void rememberMissing(String key) {
+        if (key.length() <= MAX_NEGATIVE_KEY_LENGTH) {
+            missing.put(key, Boolean.TRUE);
+        }
+    }
+
+    private void forgetMissing(Long id, String normalizedUsername) {
+        missing.invalidate(ID_KEY_PREFIX + id);
+        missing.invalidate(USERNAME_KEY_PREFIX + normalizedUsername);
+    }
+
+    // String header and array plus Caffeine's node with its expiry links; chars counted as two bytes
+    private static int estimatedBytes(String key) {
+        return 120 + 2 * key.length();
+    }
+
+    // Redis trouble degrades to database reads rather than failing the request
+    private UserSnapshot readShared(String key) {
+        try {
+            String json = redisTemplate.opsForValue().get(key);
+            return json == null ? null : objectMapper.readValue(json, UserSnapshot.class);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.debug("Shared user cache read for {} failed: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSharedIfAbsent(UserSnapshot snapshot) {
+        try {
+            String json = objectMapper.writeValueAsString(snapshot);
+            redisTemplate.opsForValue().setIfAbsent(ID_KEY_PREFIX + snapshot.id(), json, sharedTtl);
+            redisTemplate.opsForValue().setIfAbsent(USERNAME_KEY_PREFIX + normalize(snapshot.username()), json, sharedTtl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.debug("Shared user cache write for {} failed: {}", snapshot.id(), e.getMessage());
+        }
+    }
+
+    private void putLocal(UserSnapshot snapshot) {
+        byId.put(snapshot.id(), snapshot);
+        byUsername.put(normalize(snapshot.username()), snapshot);
+    }
+
+    // Usernames are unique regardless of case, so every spelling shares one entry
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static class TierStats {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private Counter hitCounter;
+        private Counter missCounter;
+
+        void register(MeterRegistry registry, String tier) {
+            hitCounter = registry.counter("user.cache.requests", "tier", tier, "result", "hit");
+            missCounter = registry.counter("user.cache.requests", "tier", tier, "result", "miss");
+            Gauge.builder("user.cache.hit-ratio", this, TierStats::hitRatio).tag("tier", tier).register(registry);
+        }
+
+        // Returns whether the tier had the entry
+        boolean record(Object entry) {
+            boolean hit = entry != null;
+            (hit ? hits : misses).increment();
+            Counter counter = hit ? hitCounter : missCounter;
+            if (counter != null) {
+                counter.increment();
+            }
+            return hit;
+        }
+
+        double hitRatio() {
+            long hitCount = hits.sum();
+            long total = hitCount + misses.sum();
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.userservice.service;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * The claims the service acts on, taken from a token whose signature has been verified.
+ * expiresAt is epoch milliseconds, or 0 when the token carries no exp claim.
+ */
+public record VerifiedToken(String subject, Long userId, String role, Integer version, String id, long expiresAt) {
+
+    public static VerifiedToken from(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get(JwtService.CLAIM_USER_ID, Long.class),
+                claims.get(JwtService.CLAIM_ROLE, String.class),
+                claims.get(JwtService.CLAIM_VERSION, Integer.class),
+                claims.getId(),
+                expiration != null ? expiration.getTime() : 0L
+        );
+    }
+
+    public Date expiration() {
+        return expiresAt != 0L ? new Date(expiresAt) : null;
+    }
+}
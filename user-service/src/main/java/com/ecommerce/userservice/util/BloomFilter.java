@@ -0,0 +1,102 @@
+package com.ecommerce.userservice.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over strings. Readers never block; concurrent writers only
+ * contend on the individual words they set.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong insertions = new AtomicLong();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = step(hash);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            setBit(index);
+        }
+        insertions.incrementAndGet();
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = step(hash);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    // Expected false-positive rate for the current number of insertions
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions.get() / bitCount), hashCount);
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units (no allocation), finalised with a murmur3 mix
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // Odd, so the probe sequence cycles through every bit; h1 stays unrestricted so it can start anywhere
+    private static long step(long hash) {
+        return mix(hash) | 1L;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecommerce.userservice.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails once more than a fixed number of bytes has been read, whatever the request declared, so a
+ * chunked or mislabelled body is cut off at the same point as one with a Content-Length.
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+
+    public BoundedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            counted(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = super.read(buffer, offset, length);
+        if (n > 0) {
+            counted(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        counted(skipped);
+        return skipped;
+    }
+
+    // Mark and reset would let the count drift from what was actually consumed
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void counted(long n) throws LimitExceededException {
+        count += n;
+        if (count > limit) {
+            throw new LimitExceededException(limit);
+        }
+    }
+
+    public static class LimitExceededException extends IOException {
+
+        public LimitExceededException(long limit) {
+            super("Input exceeds " + limit + " bytes");
+        }
+    }
+}
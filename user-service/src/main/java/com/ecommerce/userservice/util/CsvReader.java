@@ -0,0 +1,94 @@
+package com.ecommerce.userservice.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: comma separated, double-quoted fields with "" escapes and line
+ * breaks inside quotes. Reads one record at a time, so memory stays constant however large the
+ * input is.
+ */
+public class CsvReader implements Closeable {
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int pushedBack = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Returns the next record, or null at end of input
+    public List<String> next() throws IOException {
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean sawAnything = false;
+
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (quoted) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (!sawAnything) {
+                    return null;
+                }
+                record.add(field.toString());
+                return record;
+            }
+            sawAnything = true;
+
+            if (quoted) {
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                record.add(field.toString());
+                return record;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
@@ -0,0 +1,211 @@
+package com.ecommerce.userservice.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cuckoo filter over strings with 16-bit fingerprints, four per bucket packed into one long, so
+ * a lookup reads at most two words and never blocks. Unlike a Bloom filter entries can be
+ * removed. Writers are serialized; a displacement path is found first and then applied from its
+ * far end, so every fingerprint stays visible to concurrent readers while it is being moved.
+ * If an insert finds no path the filter saturates and answers "maybe" for everything rather
+ * than risk a false negative.
+ */
+public class CuckooFilter {
+
+    private static final int SLOTS = 4;
+    private static final int FINGERPRINT_BITS = 16;
+    private static final long FINGERPRINT_MASK = (1L << FINGERPRINT_BITS) - 1;
+    private static final int MAX_KICKS = 500;
+    private static final double MAX_LOAD = 0.95;
+
+    private final AtomicLongArray buckets;
+    private final int bucketMask;
+    private final int[] pathBuckets = new int[MAX_KICKS];
+    private final int[] pathSlots = new int[MAX_KICKS];
+    private volatile long size;
+    private volatile boolean saturated;
+
+    public CuckooFilter(long expectedInsertions) {
+        long needed = (long) Math.ceil(Math.max(1, expectedInsertions) / (SLOTS * MAX_LOAD));
+        int bucketCount = (int) Math.min(1 << 30, Long.highestOneBit(Math.max(1, needed - 1)) << 1);
+        this.buckets = new AtomicLongArray(bucketCount);
+        this.bucketMask = bucketCount - 1;
+    }
+
+    public boolean mightContain(String value) {
+        if (saturated) {
+            return true;
+        }
+        long hash = hash(value);
+        int fingerprint = fingerprint(hash);
+        int first = (int) hash & bucketMask;
+        return slotOf(first, fingerprint) >= 0 || slotOf(alternate(first, fingerprint), fingerprint) >= 0;
+    }
+
+    // Returns false when no room could be made; the filter is then saturated until replaced
+    public synchronized boolean put(String value) {
+        long hash = hash(value);
+        int fingerprint = fingerprint(hash);
+        int first = (int) hash & bucketMask;
+        int second = alternate(first, fingerprint);
+
+        if (placeInEmptySlot(first, fingerprint) || placeInEmptySlot(second, fingerprint)) {
+            size++;
+            return true;
+        }
+        if (displace(ThreadLocalRandom.current().nextBoolean() ? first : second, fingerprint)) {
+            size++;
+            return true;
+        }
+        saturated = true;
+        return false;
+    }
+
+    // Removes one copy; only call for values that were put, or another value's fingerprint may go
+    public synchronized boolean remove(String value) {
+        long hash = hash(value);
+        int fingerprint = fingerprint(hash);
+        int first = (int) hash & bucketMask;
+        for (int bucket : new int[]{first, alternate(first, fingerprint)}) {
+            int slot = slotOf(bucket, fingerprint);
+            if (slot >= 0) {
+                write(bucket, slot, 0);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isSaturated() {
+        return saturated;
+    }
+
+    public long memoryBytes() {
+        return (long) buckets.length() * Long.BYTES;
+    }
+
+    public double loadFactor() {
+        return (double) size / ((long) buckets.length() * SLOTS);
+    }
+
+    // Each lookup compares against up to 2 * SLOTS fingerprints, each matching with p = 2^-16
+    public double expectedFalsePositiveRate() {
+        if (saturated) {
+            return 1.0;
+        }
+        return 1 - Math.pow(1 - 1.0 / FINGERPRINT_MASK, 2 * SLOTS * loadFactor());
+    }
+
+    /**
+     * Random-walks a chain of full buckets, remembering which slot it would evict at each step,
+     * until one has room. Nothing is written until the whole path is known.
+     */
+    private boolean displace(int start, int fingerprint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int bucket = start;
+        for (int depth = 0; depth < MAX_KICKS; depth++) {
+            int slot = unvisitedSlot(bucket, depth, random.nextInt(SLOTS));
+            if (slot < 0) {
+                return false;
+            }
+            pathBuckets[depth] = bucket;
+            pathSlots[depth] = slot;
+
+            int victim = read(bucket, slot);
+            int next = alternate(bucket, victim);
+            int free = slotOf(next, 0);
+            if (free >= 0) {
+                // Copy each victim forward before its old slot is overwritten
+                write(next, free, victim);
+                for (int i = depth; i > 0; i--) {
+                    write(pathBuckets[i], pathSlots[i], read(pathBuckets[i - 1], pathSlots[i - 1]));
+                }
+                write(pathBuckets[0], pathSlots[0], fingerprint);
+                return true;
+            }
+            bucket = next;
+        }
+        return false;
+    }
+
+    // A slot already on the path would be overwritten twice when the path is applied
+    private int unvisitedSlot(int bucket, int depth, int preferred) {
+        for (int attempt = 0; attempt < SLOTS; attempt++) {
+            int slot = (preferred + attempt) % SLOTS;
+            boolean visited = false;
+            for (int i = 0; i < depth && !visited; i++) {
+                visited = pathBuckets[i] == bucket && pathSlots[i] == slot;
+            }
+            if (!visited) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean placeInEmptySlot(int bucket, int fingerprint) {
+        int slot = slotOf(bucket, 0);
+        if (slot < 0) {
+            return false;
+        }
+        write(bucket, slot, fingerprint);
+        return true;
+    }
+
+    private int slotOf(int bucket, int fingerprint) {
+        long word = buckets.get(bucket);
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (((word >>> (slot * FINGERPRINT_BITS)) & FINGERPRINT_MASK) == fingerprint) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int read(int bucket, int slot) {
+        return (int) ((buckets.get(bucket) >>> (slot * FINGERPRINT_BITS)) & FINGERPRINT_MASK);
+    }
+
+    // Only called by the single writer, so a plain read-modify-write of the word is safe
+    private void write(int bucket, int slot, int fingerprint) {
+        int shift = slot * FINGERPRINT_BITS;
+        long word = buckets.get(bucket);
+        buckets.set(bucket, (word & ~(FINGERPRINT_MASK << shift)) | ((long) fingerprint << shift));
+    }
+
+    // Partial-key cuckoo hashing: the other bucket is derivable from either bucket and the fingerprint
+    private int alternate(int bucket, int fingerprint) {
+        return (bucket ^ (int) mix(fingerprint)) & bucketMask;
+    }
+
+    // Zero marks an empty slot, so it is never used as a fingerprint
+    private static int fingerprint(long hash) {
+        int fingerprint = (int) ((hash >>> 32) & FINGERPRINT_MASK);
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units, finalised with a murmur3 mix
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.userservice.util;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the loader on its own
+ * thread and every caller arriving while it runs waits on the same future instead of loading
+ * again. Each waiter gives up on its own after the timeout without affecting the load. Nothing
+ * is cached; the key is free again as soon as the load finishes.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlight(Duration waiterTimeout) {
+        this.timeoutNanos = waiterTimeout.toNanos();
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(key, existing);
+        }
+
+        leaders.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(K key, CompletableFuture<V> flight) {
+        try {
+            return flight.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new RuntimeException("Timed out waiting for in-flight lookup of " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for in-flight lookup of " + key);
+        } catch (ExecutionException e) {
+            // Waiters see the leader's failure as if they had loaded themselves
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (CancellationException e) {
+            throw new RuntimeException("In-flight lookup of " + key + " was cancelled");
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    // Loads actually run
+    public long leaders() {
+        return leaders.sum();
+    }
+
+    // Calls that shared another caller's load
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.userservice.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hashed timing wheel for coarse expirations. Scheduling is a lock-free queue append, and each
+ * advance only visits the slots whose ticks have passed, so expiring entries never requires
+ * scanning everything that is being tracked. Deadlines further out than one revolution stay in
+ * their slot until the revolution that is due.
+ */
+public class TimingWheel<K> {
+
+    private record Entry<K>(K key, long deadline) {
+    }
+
+    private final long tickMillis;
+    private final Queue<Entry<K>>[] slots;
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int slotCount, long nowMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.slots = new Queue[Math.max(1, slotCount)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.currentTick = nowMillis / this.tickMillis;
+    }
+
+    public void schedule(K key, long deadlineMillis) {
+        // Never into a slot the advancing thread may already have passed
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        slots[slot(tick)].add(new Entry<>(key, deadlineMillis));
+    }
+
+    /**
+     * Hands every entry whose deadline has passed to onExpire, which returns a later deadline to
+     * keep the entry scheduled or any value not after nowMillis to drop it.
+     */
+    public synchronized void advance(long nowMillis, ToLongFunction<K> onExpire) {
+        long targetTick = nowMillis / tickMillis;
+        // After a long pause every slot is due once, there is no need to go round more than once
+        long firstTick = Math.max(currentTick, targetTick - slots.length + 1);
+        for (long tick = firstTick; tick <= targetTick; tick++) {
+            Queue<Entry<K>> slot = slots[slot(tick)];
+            for (int pending = slot.size(); pending > 0; pending--) {
+                Entry<K> entry = slot.poll();
+                if (entry == null) {
+                    break;
+                }
+                if (entry.deadline() > nowMillis) {
+                    slot.add(entry);
+                    continue;
+                }
+                long next = onExpire.applyAsLong(entry.key());
+                if (next > nowMillis) {
+                    slots[slot(Math.max(next / tickMillis, targetTick + 1))].add(new Entry<>(entry.key(), next));
+                }
+            }
+        }
+        currentTick = targetTick;
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.length);
+    }
+}
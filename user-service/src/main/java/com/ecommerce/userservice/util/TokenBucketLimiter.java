@@ -0,0 +1,180 @@
+package com.ecommerce.userservice.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets keyed by string. Each bucket is a single AtomicLong packing the last
+ * refill time (upper 48 bits, millis since construction) and the token count (lower 16 bits,
+ * fixed point with 8 fractional bits), so acquiring is one map lookup and one CAS. Buckets are
+ * dropped by a timing wheel once they would be full again, which is indistinguishable from
+ * never having been seen. At the key limit, the fullest of a small sample taken at a random point
+ * of the table is evicted to make room, so a flood of one-off keys displaces other one-off keys
+ * rather than the buckets being drained, and no key can place itself out of the sample's reach.
+ */
+public class TokenBucketLimiter {
+
+    private static final int FRACTION_BITS = 8;
+    private static final long ONE_TOKEN = 1L << FRACTION_BITS;
+    private static final int TOKEN_BITS = 16;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final int MAX_CAPACITY = (int) (TOKEN_MASK >>> FRACTION_BITS);
+    private static final int WHEEL_SLOTS = 512;
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final long capacity;
+    private final long refillMillis;
+    private final int maxKeys;
+    private final long epochMillis;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final TimingWheel<String> expirations;
+
+    public TokenBucketLimiter(int capacity, long refillMillis, int maxKeys, long tickMillis, long nowMillis) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        this.capacity = capacity * ONE_TOKEN;
+        this.refillMillis = Math.max(1, refillMillis);
+        this.maxKeys = maxKeys;
+        this.epochMillis = nowMillis;
+        this.expirations = new TimingWheel<>(tickMillis, WHEEL_SLOTS, nowMillis);
+    }
+
+    /**
+     * Takes one token for key. Returns 0 when a token was available, otherwise how many
+     * milliseconds until the next one is.
+     */
+    public long tryAcquire(String key, long nowMillis) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evictFullest(nowMillis);
+            }
+            AtomicLong created = new AtomicLong(pack(nowMillis, capacity));
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+                expirations.schedule(key, nowMillis + refillMillis * (capacity / ONE_TOKEN));
+            }
+        }
+
+        while (true) {
+            long state = bucket.get();
+            long refilled = refill(state, nowMillis);
+            long tokens = refilled & TOKEN_MASK;
+            if (tokens < ONE_TOKEN) {
+                long elapsedSinceRefill = nowMillis - epochMillis - (refilled >>> TOKEN_BITS);
+                return Math.max(1, ceilMillis(ONE_TOKEN - tokens) - elapsedSinceRefill);
+            }
+            if (bucket.compareAndSet(state, refilled - ONE_TOKEN)) {
+                return 0;
+            }
+        }
+    }
+
+    // Gives back a token taken by tryAcquire, e.g. once the attempt turned out to be legitimate
+    public void release(String key, long nowMillis) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        while (true) {
+            long state = bucket.get();
+            long refilled = refill(state, nowMillis);
+            long tokens = Math.min(capacity, (refilled & TOKEN_MASK) + ONE_TOKEN);
+            if (bucket.compareAndSet(state, (refilled & ~TOKEN_MASK) | tokens)) {
+                return;
+            }
+        }
+    }
+
+    public void expire(long nowMillis) {
+        expirations.advance(nowMillis, key -> {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                return 0;
+            }
+            long fullAt = fullAt(bucket.get());
+            if (fullAt <= nowMillis) {
+                buckets.remove(key, bucket);
+            }
+            return fullAt;
+        });
+    }
+
+    // A bucket with the most tokens left has seen the fewest recent attempts, so forgetting it
+    // (as if full) loses the least; those worth keeping have been drained
+    private void evictFullest(long nowMillis) {
+        Map.Entry<String, AtomicLong> fullest = null;
+        long mostTokens = -1;
+        // The whole region is scanned, however many it holds, so no entry is ever out of reach
+        Iterator<Map.Entry<String, AtomicLong>> sample = Spliterators.iterator(randomRegion());
+        while (sample.hasNext()) {
+            Map.Entry<String, AtomicLong> entry = sample.next();
+            long tokens = refill(entry.getValue().get(), nowMillis) & TOKEN_MASK;
+            if (tokens > mostTokens) {
+                fullest = entry;
+                mostTokens = tokens;
+            }
+        }
+        if (fullest == null) {
+            // The chosen region was empty; any bucket will do
+            fullest = buckets.entrySet().stream().findFirst().orElse(null);
+        }
+        if (fullest != null) {
+            buckets.remove(fullest.getKey(), fullest.getValue());
+        }
+    }
+
+    // Halves the table's bin range at random until about one sample's worth of entries is left: a
+    // uniformly placed region in O(log n), where iterating from the start would always sample the
+    // same bins
+    private Spliterator<Map.Entry<String, AtomicLong>> randomRegion() {
+        Spliterator<Map.Entry<String, AtomicLong>> region = buckets.entrySet().spliterator();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (region.estimateSize() > EVICTION_SAMPLE) {
+            Spliterator<Map.Entry<String, AtomicLong>> lowerHalf = region.trySplit();
+            if (lowerHalf == null) {
+                break;
+            }
+            if (random.nextBoolean()) {
+                region = lowerHalf;
+            }
+        }
+        return region;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Returns the state with elapsed time converted into tokens; only the time actually converted
+    // is consumed, so frequent calls cannot starve the bucket through rounding
+    private long refill(long state, long nowMillis) {
+        long now = Math.max(0, nowMillis - epochMillis);
+        long last = state >>> TOKEN_BITS;
+        long tokens = state & TOKEN_MASK;
+        long added = Math.max(0, now - last) * ONE_TOKEN / refillMillis;
+        if (tokens + added >= capacity) {
+            return pack(nowMillis, capacity);
+        }
+        return ((last + added * refillMillis / ONE_TOKEN) << TOKEN_BITS) | (tokens + added);
+    }
+
+    private long fullAt(long state) {
+        return epochMillis + (state >>> TOKEN_BITS) + ceilMillis(capacity - (state & TOKEN_MASK));
+    }
+
+    private long ceilMillis(long tokens) {
+        return (tokens * refillMillis + ONE_TOKEN - 1) / ONE_TOKEN;
+    }
+
+    private long pack(long nowMillis, long tokens) {
+        return (Math.max(0, nowMillis - epochMillis) << TOKEN_BITS) | tokens;
+    }
+}
@@ -0,0 +1,23 @@
+-- Tables added after the users-only schema that existing databases are baselined at (V1). Those
+-- never run V1, so the tables are created here; IF NOT EXISTS covers databases where ddl-auto=update
+-- already created them.
+
+CREATE TABLE IF NOT EXISTS user_import_checkpoints (
+    job_id     VARCHAR(100) PRIMARY KEY,
+    last_row   BIGINT       NOT NULL,
+    imported   BIGINT       NOT NULL,
+    rejected   BIGINT       NOT NULL,
+    completed  BOOLEAN      NOT NULL,
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_id BIGINT       NOT NULL,
+    event_type   VARCHAR(50)  NOT NULL,
+    payload      TEXT         NOT NULL,
+    attempts     INTEGER      NOT NULL,
+    available_at TIMESTAMP(6) NOT NULL,
+    last_error   VARCHAR(500),
+    created_at   TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,22 @@
+-- Schema as previously created by hibernate.ddl-auto=update. Existing databases are baselined
+-- at this version (spring.flyway.baseline-on-migrate) and only run the migrations after it.
+
+CREATE TABLE users (
+    id                         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username                   VARCHAR(255) NOT NULL,
+    email                      VARCHAR(255) NOT NULL,
+    password                   VARCHAR(255) NOT NULL,
+    first_name                 VARCHAR(255) NOT NULL,
+    last_name                  VARCHAR(255) NOT NULL,
+    phone_number               VARCHAR(255),
+    date_of_birth              TIMESTAMP(6),
+    role                       VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'ADMIN')),
+    is_enabled                 BOOLEAN      NOT NULL,
+    is_account_non_expired     BOOLEAN      NOT NULL,
+    is_account_non_locked      BOOLEAN      NOT NULL,
+    is_credentials_non_expired BOOLEAN      NOT NULL,
+    created_at                 TIMESTAMP(6) NOT NULL,
+    updated_at                 TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
@@ -0,0 +1,10 @@
+-- Built concurrently so a large users table keeps taking writes; Flyway runs this script outside a
+-- transaction. Fails if existing usernames or emails differ only by case; resolve those first.
+-- A failed run leaves an INVALID index behind that must be dropped before retrying.
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_users_username_ci ON users (lower(username));
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_users_email_ci ON users (lower(email));
+
+-- Keyset order for admin listings and created-range filters
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_created_at ON users (created_at, id);
@@ -0,0 +1,27 @@
+-- The lower() indexes from V2 enforce a stricter uniqueness, so the exact-match email constraint
+-- only costs index maintenance on every insert. The username one stays: its index serves exact
+-- "WHERE username = ?" lookups, such as Hibernate's natural-id loads, which the lower(username)
+-- index cannot. Databases created by ddl-auto may carry the constraint under a generated name,
+-- hence the lookup by column.
+DO $$
+DECLARE
+    constraint_name TEXT;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+        WHERE c.conrelid = 'users'::regclass
+          AND c.contype = 'u'
+          AND array_length(c.conkey, 1) = 1
+          AND (SELECT a.attname FROM pg_attribute a
+               WHERE a.attrelid = c.conrelid AND a.attnum = c.conkey[1]) = 'email'
+    LOOP
+        EXECUTE format('ALTER TABLE users DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
+
+-- Logins rehash passwords and profile edits touch updated_at; none of those columns are indexed,
+-- so leaving room on each page lets those updates stay HOT (no index writes, less bloat)
+ALTER TABLE users SET (fillfactor = 90);
+
+ALTER TABLE outbox_events SET (fillfactor = 80);
@@ -0,0 +1,7 @@
+-- Prefix search for the admin listing (lower(username) LIKE 'abc%'). The unique indexes from V2 use
+-- the database collation, which cannot serve LIKE unless it is "C"; text_pattern_ops compares
+-- character by character and can.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_prefix ON users (lower(username) text_pattern_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_prefix ON users (lower(email) text_pattern_ops);
@@ -0,0 +1,90 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.dto.AuthView;
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.service.JwtService;
+import com.ecommerce.userservice.service.UserService;
+import com.ecommerce.userservice.service.VerifiedToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserService userService;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(jwtService, userService);
+        when(jwtService.verify("admin-token")).thenReturn(
+                new VerifiedToken("admin", 1L, "ADMIN", JwtService.TOKEN_VERSION, "jti", Long.MAX_VALUE));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_AdminPathUsesStoredRoleNotTokenClaim() throws Exception {
+        // Given: the admin was demoted after the token was issued
+        when(userService.findCurrentAuthView("admin")).thenReturn(
+                Optional.of(new AuthView(1L, "admin", User.Role.USER, true)));
+
+        // When
+        Authentication authentication = authenticate("/api/admin/users");
+
+        // Then
+        assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void doFilter_AdminPathRejectsDisabledUser() throws Exception {
+        // Given
+        when(userService.findCurrentAuthView("admin")).thenReturn(
+                Optional.of(new AuthView(1L, "admin", User.Role.ADMIN, false)));
+
+        // When & Then
+        assertNull(authenticate("/api/admin/users"));
+    }
+
+    @Test
+    void doFilter_OtherPathsTrustTokenClaimWithoutLookup() throws Exception {
+        // When
+        Authentication authentication = authenticate("/api/users/profile");
+
+        // Then
+        assertTrue(authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).anyMatch("ROLE_ADMIN"::equals));
+        verifyNoInteractions(userService);
+    }
+
+    private Authentication authenticate(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader("Authorization", "Bearer admin-token");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.config.PasswordHashingProperties.Algorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashCalibratorTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Test
+    void build_LegacyBcryptHashMatchesAndIsUpgraded() {
+        // Given
+        String legacyHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        PasswordEncoder encoder = new PasswordHashCalibrator(properties(Algorithm.BCRYPT)).build();
+
+        // When
+        String newHash = encoder.encode(PASSWORD);
+
+        // Then
+        assertTrue(encoder.matches(PASSWORD, legacyHash));
+        assertTrue(encoder.upgradeEncoding(legacyHash));
+        assertTrue(newHash.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(encoder.matches(PASSWORD, newHash));
+        assertFalse(encoder.upgradeEncoding(newHash));
+    }
+
+    @Test
+    void build_HashesFromOtherAlgorithmsStillVerify() {
+        // Given
+        String argon2Hash = new PasswordHashCalibrator(properties(Algorithm.ARGON2)).build().encode(PASSWORD);
+        String pbkdf2Hash = new PasswordHashCalibrator(properties(Algorithm.PBKDF2)).build().encode(PASSWORD);
+        PasswordEncoder encoder = new PasswordHashCalibrator(properties(Algorithm.BCRYPT)).build();
+
+        // When & Then
+        assertTrue(argon2Hash.startsWith("{argon2}"));
+        assertTrue(pbkdf2Hash.startsWith("{pbkdf2-sha256}1000$"));
+        assertTrue(encoder.matches(PASSWORD, argon2Hash));
+        assertTrue(encoder.matches(PASSWORD, pbkdf2Hash));
+        assertFalse(encoder.matches("wrong-password", pbkdf2Hash));
+        assertTrue(encoder.upgradeEncoding(argon2Hash));
+        assertTrue(encoder.upgradeEncoding(pbkdf2Hash));
+    }
+
+    @Test
+    void build_LowerPbkdf2IterationCountIsUpgraded() {
+        // Given
+        PasswordHashingProperties properties = properties(Algorithm.PBKDF2);
+        String oldHash = new PasswordHashCalibrator(properties).build().encode(PASSWORD);
+        properties.setPbkdf2Iterations(2000);
+
+        // When
+        PasswordEncoder encoder = new PasswordHashCalibrator(properties).build();
+
+        // Then
+        assertTrue(encoder.matches(PASSWORD, oldHash));
+        assertTrue(encoder.upgradeEncoding(oldHash));
+    }
+
+    @Test
+    void bcryptStrength_NeverCalibratedBelowMinimum() {
+        // Given
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setTargetLatency(Duration.ofNanos(1));
+        properties.setCalibrationSamples(1);
+
+        // When & Then
+        assertEquals(10, new PasswordHashCalibrator(properties).bcryptStrength());
+    }
+
+    // Pinned, cheap parameters so the tests do not pay for calibration
+    private static PasswordHashingProperties properties(Algorithm algorithm) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setBcryptStrength(5);
+        properties.setArgon2Iterations(1);
+        properties.setArgon2MemoryKib(1024);
+        properties.setPbkdf2Iterations(1000);
+        return properties;
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecommerce.userservice.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private ReadYourWritesTracker readYourWritesTracker;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        ReplicaDataSourceProperties properties = new ReplicaDataSourceProperties();
+        properties.setReadYourWritesWindow(Duration.ofMinutes(1));
+        readYourWritesTracker = new ReadYourWritesTracker(properties);
+
+        routingDataSource = new ReplicaRoutingDataSource(node("primary"), Map.of("replica-1", node("replica-1")),
+                readYourWritesTracker, null);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransaction_GoesToEligibleReplica() {
+        // Given
+        routingDataSource.setEligible("replica-1", true);
+
+        // When & Then
+        assertEquals("replica-1", readOnlyTransaction.execute(status -> currentNode()));
+        assertEquals("primary", writeTransaction.execute(status -> currentNode()));
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    void readOnlyTransaction_LaggingReplica_FallsBackToPrimary() {
+        // Given
+        routingDataSource.setEligible("replica-1", true);
+        routingDataSource.setEligible("replica-1", false);
+
+        // When & Then
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    void readOnlyTransaction_RecentWriterReadsFromPrimary() {
+        // Given
+        routingDataSource.setEligible("replica-1", true);
+        readYourWritesTracker.recordWrite("alice");
+
+        // When
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        String aliceReadsFrom = readOnlyTransaction.execute(status -> currentNode());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("bob", null, List.of()));
+        String bobReadsFrom = readOnlyTransaction.execute(status -> currentNode());
+
+        // Then
+        assertEquals("primary", aliceReadsFrom);
+        assertEquals("replica-1", bobReadsFrom);
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.model.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Boots Hibernate on H2 with the cache settings from application.yml and the regions in hibernate-cache.conf
+class UserSecondLevelCacheTest {
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:l2cache;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.cache.use_second_level_cache", "true")
+                .setProperty("hibernate.cache.region.factory_class", "jcache")
+                .setProperty("hibernate.javax.cache.provider",
+                        "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider")
+                .setProperty("hibernate.javax.cache.uri", "hibernate-cache.conf")
+                .setProperty("hibernate.javax.cache.missing_cache_strategy", "fail")
+                .setProperty("hibernate.generate_statistics", "true")
+                .buildSessionFactory();
+        statistics = sessionFactory.getStatistics();
+
+        sessionFactory.inTransaction(session -> session.persist(user("testuser")));
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void naturalIdLookup_SecondLoadRunsNoSql() {
+        // Given
+        sessionFactory.inSession(session -> session.bySimpleNaturalId(User.class).load("testuser"));
+        long statementsAfterFirstLoad = statistics.getPrepareStatementCount();
+
+        // When
+        User user = sessionFactory.fromSession(session -> session.bySimpleNaturalId(User.class).load("testuser"));
+
+        // Then
+        assertEquals("testuser", user.getUsername());
+        assertEquals(statementsAfterFirstLoad, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getDomainDataRegionStatistics(User.CACHE_REGION).getHitCount() > 0);
+    }
+
+    @Test
+    void update_ReplacesCachedState() {
+        // Given
+        Long id = sessionFactory.fromSession(session -> session.bySimpleNaturalId(User.class).load("testuser").getId());
+
+        // When
+        sessionFactory.inTransaction(session -> session.find(User.class, id).setFirstName("Changed"));
+
+        // Then
+        long statementsBefore = statistics.getPrepareStatementCount();
+        User user = sessionFactory.fromSession((Session session) -> session.find(User.class, id));
+        assertEquals("Changed", user.getFirstName());
+        assertEquals(statementsBefore, statistics.getPrepareStatementCount());
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encodedPassword");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        return user;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.config.JwtSigningProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HmacTokenVerifierTest {
+
+    private static final String SECRET = "test-secret-key-that-is-at-least-32-bytes-long";
+
+    private JwtKeyManager keyManager;
+    private HmacTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        keyManager = new JwtKeyManager();
+        ReflectionTestUtils.setField(keyManager, "secret", SECRET);
+        ReflectionTestUtils.setField(keyManager, "properties", new JwtSigningProperties());
+        keyManager.init();
+        verifier = new HmacTokenVerifier(keyManager.getHmacVerificationKeys(), keyManager.getLegacyHmacKey());
+    }
+
+    @Test
+    void verify_MatchesClaimsParsedByJjwt() {
+        // Given
+        Date expiresAt = new Date((System.currentTimeMillis() / 1000 + 60) * 1000);
+        String token = signed()
+                .setSubject("testuser")
+                .setId("jti-1")
+                .claim(JwtService.CLAIM_USER_ID, 42L)
+                .claim(JwtService.CLAIM_ROLE, "ADMIN")
+                .claim(JwtService.CLAIM_VERSION, JwtService.TOKEN_VERSION)
+                .setExpiration(expiresAt)
+                .compact();
+
+        // When
+        VerifiedToken verified = verifier.verify(token);
+
+        // Then
+        Claims claims = Jwts.parserBuilder().setSigningKeyResolver(keyManager).build().parseClaimsJws(token).getBody();
+        assertEquals(VerifiedToken.from(claims), verified);
+        assertEquals(expiresAt, verified.expiration());
+    }
+
+    @Test
+    void verify_TokenWithoutKidUsesLegacyKey() {
+        // Given
+        String token = Jwts.builder()
+                .setSubject("testuser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        // When
+        VerifiedToken verified = verifier.verify(token);
+
+        // Then
+        assertNotNull(verified);
+        assertEquals("testuser", verified.subject());
+        assertNull(verified.version());
+    }
+
+    @Test
+    void verify_TamperedPayloadFailsBeforeParsing() {
+        // Given
+        String token = signed().setSubject("testuser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000)).compact();
+        String[] parts = token.split("\\.");
+        String forged = signed().setSubject("admin")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000)).compact().split("\\.")[1];
+
+        // When & Then
+        assertThrows(SignatureException.class, () -> verifier.verify(parts[0] + "." + forged + "." + parts[2]));
+    }
+
+    @Test
+    void verify_DefersToJjwtOutsideFastPath() {
+        // Given
+        String expired = signed().setSubject("testuser")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000)).compact();
+        String escaped = signed().setSubject("test\"user")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000)).compact();
+        String unknownKid = Jwts.builder().setHeaderParam("kid", "other").setSubject("testuser")
+                .signWith(Keys.secretKeyFor(SignatureAlgorithm.HS256)).compact();
+
+        // When & Then
+        assertNull(verifier.verify(expired));
+        assertNull(verifier.verify(escaped));
+        assertNull(verifier.verify(unknownKid));
+        assertNull(verifier.verify("not-a-token"));
+    }
+
+    private JwtBuilder signed() {
+        JwtKeyManager.SigningKey key = keyManager.getActiveKey();
+        return Jwts.builder()
+                .setHeaderParam("kid", key.kid())
+                .signWith(key.key(), key.algorithm());
+    }
+}
@@ -0,0 +1,233 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.config.JwtSigningProperties;
+import com.ecommerce.userservice.config.JwtSigningProperties.KeyProperties;
+import com.ecommerce.userservice.config.JwtSigningProperties.KeyStatus;
+import com.ecommerce.userservice.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtServiceTest {
+
+    private JwtService jwtService;
+    private User testUser;
+
+    private static final String SECRET = "test-secret-key-that-is-at-least-32-bytes-long";
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newJwtService(new JwtSigningProperties());
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        testUser.setEmail("test@example.com");
+    }
+
+    @Test
+    void validateToken_ParsesOnceAndServesRepeatsFromCache() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+
+        // When
+        assertTrue(jwtService.validateToken(token));
+        assertEquals("testuser", jwtService.extractUsername(token));
+        assertNotNull(jwtService.extractExpiration(token));
+
+        // Then
+        assertEquals(1, jwtService.getClaimsCacheStats().missCount());
+        assertEquals(2, jwtService.getClaimsCacheStats().hitCount());
+        assertEquals(1, jwtService.getClaimsCacheSize());
+    }
+
+    @Test
+    void validateToken_TamperedTokenIsRejectedAndNotCached() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // When & Then
+        assertFalse(jwtService.validateToken(tampered));
+        assertFalse(jwtService.validateToken(tampered));
+        assertEquals(0, jwtService.getClaimsCacheSize());
+    }
+
+    @Test
+    void validateToken_ExpiredTokenIsRejected() {
+        // Given
+        ReflectionTestUtils.setField(jwtService, "expiration", -1000L);
+        String token = jwtService.generateToken(testUser);
+
+        // When & Then
+        assertFalse(jwtService.validateToken(token));
+        assertEquals(0, jwtService.getClaimsCacheSize());
+    }
+
+    @Test
+    void validateToken_EmptyTokenIsRejected() {
+        assertFalse(jwtService.validateToken(""));
+        assertFalse(jwtService.validateToken(null));
+    }
+
+    @Test
+    void generateToken_EmbedsIdentityClaims() {
+        // Given
+        testUser.setRole(User.Role.ADMIN);
+
+        // When
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(testUser));
+
+        // Then
+        assertEquals("testuser", claims.getSubject());
+        assertEquals(1L, claims.get(JwtService.CLAIM_USER_ID, Long.class));
+        assertEquals("ADMIN", claims.get(JwtService.CLAIM_ROLE, String.class));
+        assertEquals(JwtService.TOKEN_VERSION, claims.get(JwtService.CLAIM_VERSION, Integer.class));
+    }
+
+    @Test
+    void verify_UncachedFastPathMatchesCachedResult() {
+        // Given
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 0L);
+        testUser.setRole(User.Role.ADMIN);
+        String token = jwtService.generateToken(testUser);
+
+        // When
+        VerifiedToken verified = jwtService.verify(token);
+
+        // Then
+        assertEquals(VerifiedToken.from(jwtService.extractAllClaims(token)), verified);
+        assertEquals(0, jwtService.getClaimsCacheStats().requestCount());
+    }
+
+    @Test
+    void validateToken_RevokedTokenIsRejectedEvenWhenCached() {
+        // Given
+        TokenRevocationService revocationService = mock(TokenRevocationService.class);
+        ReflectionTestUtils.setField(jwtService, "revocationService", revocationService);
+        String token = jwtService.generateToken(testUser);
+        String jti = jwtService.verify(token).id();
+        assertNotNull(jti);
+
+        // When
+        when(revocationService.isRevoked(anyString())).thenAnswer(invocation -> jti.equals(invocation.getArgument(0)));
+
+        // Then
+        assertFalse(jwtService.validateToken(token));
+        assertTrue(jwtService.validateToken(jwtService.generateToken(testUser)));
+    }
+
+    @Test
+    void generateToken_Rs256IsVerifiedThroughKidAndPublishedInJwks() {
+        // Given
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAlgorithm("RS256");
+        properties.setKeys(List.of(keyProperties("rsa-1", KeyStatus.ACTIVE, Keys.keyPairFor(SignatureAlgorithm.RS256))));
+        JwtService rsaService = newJwtService(properties);
+
+        // When
+        String token = rsaService.generateToken(testUser);
+
+        // Then
+        assertTrue(rsaService.validateToken(token));
+        assertFalse(jwtService.validateToken(token));
+        List<?> keys = (List<?>) keyManager(rsaService).getJwks().get("keys");
+        assertEquals(1, keys.size());
+        assertEquals("rsa-1", ((Map<?, ?>) keys.get(0)).get("kid"));
+        assertEquals("RSA", ((Map<?, ?>) keys.get(0)).get("kty"));
+    }
+
+    @Test
+    void generateToken_RetiringKeyStillVerifiesAfterRotation() {
+        // Given
+        KeyPair oldKeys = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        KeyPair newKeys = Keys.keyPairFor(SignatureAlgorithm.ES256);
+
+        JwtSigningProperties before = new JwtSigningProperties();
+        before.setAlgorithm("ES256");
+        before.setKeys(List.of(
+                keyProperties("ec-old", KeyStatus.ACTIVE, oldKeys),
+                keyProperties("ec-new", KeyStatus.NEXT, newKeys)));
+        String oldToken = newJwtService(before).generateToken(testUser);
+
+        JwtSigningProperties after = new JwtSigningProperties();
+        after.setAlgorithm("ES256");
+        after.setKeys(List.of(
+                keyProperties("ec-old", KeyStatus.RETIRING, oldKeys),
+                keyProperties("ec-new", KeyStatus.ACTIVE, newKeys)));
+        JwtService rotated = newJwtService(after);
+
+        // When
+        String newToken = rotated.generateToken(testUser);
+
+        // Then
+        assertTrue(rotated.validateToken(oldToken));
+        assertTrue(rotated.validateToken(newToken));
+        assertFalse(newJwtService(before).validateToken(newToken));
+    }
+
+    @Test
+    void generateToken_HmacTokenWithoutKidStillAcceptedAfterSwitchToRs256() {
+        // Given
+        String legacyToken = Jwts.builder()
+                .setSubject("testuser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAlgorithm("RS256");
+
+        // When & Then
+        assertTrue(newJwtService(properties).validateToken(legacyToken));
+        properties.setAcceptLegacyHmac(false);
+        assertFalse(newJwtService(properties).validateToken(legacyToken));
+    }
+
+    private static JwtService newJwtService(JwtSigningProperties properties) {
+        JwtKeyManager keyManager = new JwtKeyManager();
+        ReflectionTestUtils.setField(keyManager, "secret", SECRET);
+        ReflectionTestUtils.setField(keyManager, "properties", properties);
+        keyManager.init();
+
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "keyManager", keyManager);
+        ReflectionTestUtils.setField(service, "expiration", 3600000L);
+        ReflectionTestUtils.setField(service, "claimsCacheMaxSize", 100L);
+        service.init();
+        return service;
+    }
+
+    private static JwtKeyManager keyManager(JwtService service) {
+        return (JwtKeyManager) ReflectionTestUtils.getField(service, "keyManager");
+    }
+
+    private static KeyProperties keyProperties(String kid, KeyStatus status, KeyPair keyPair) {
+        KeyProperties key = new KeyProperties();
+        key.setKid(kid);
+        key.setStatus(status);
+        key.setPrivateKey(pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        key.setPublicKey(pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        return key;
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}
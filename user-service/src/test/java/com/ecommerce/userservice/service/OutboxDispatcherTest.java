@@ -0,0 +1,96 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.model.OutboxEvent;
+import com.ecommerce.userservice.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @InjectMocks
+    private OutboxDispatcher outboxDispatcher;
+
+    private OutboxEvent event;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxDispatcher, "stream", "user-events");
+        ReflectionTestUtils.setField(outboxDispatcher, "streamMaxLength", 1000L);
+        ReflectionTestUtils.setField(outboxDispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(outboxDispatcher, "retryBackoffMillis", 1000L);
+        ReflectionTestUtils.setField(outboxDispatcher, "maxRetryBackoffMillis", 60000L);
+
+        event = new OutboxEvent(1L, "USER_REGISTERED", "{\"userId\":1}");
+        event.setId(42L);
+    }
+
+    @Test
+    void dispatchBatch_PublishesAndDeletes() {
+        // Given
+        when(outboxEventRepository.claimBatch(any(), anyInt())).thenReturn(List.of(event));
+
+        // When
+        int sent = outboxDispatcher.dispatchBatch();
+
+        // Then
+        assertEquals(1, sent);
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(event));
+    }
+
+    @Test
+    void dispatchBatch_FailedPublishBacksOffAndKeepsRows() {
+        // Given
+        event.setAttempts(2);
+        when(outboxEventRepository.claimBatch(any(), anyInt())).thenReturn(List.of(event));
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"));
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        int sent = outboxDispatcher.dispatchBatch();
+
+        // Then
+        assertEquals(0, sent);
+        assertEquals(3, event.getAttempts());
+        assertEquals("Connection refused", event.getLastError());
+        assertFalse(event.getAvailableAt().isBefore(before.plusSeconds(4)));
+        verify(outboxEventRepository, never()).deleteAllInBatch(any());
+    }
+
+    @Test
+    void dispatchBatch_NothingDue_DoesNotTouchRedis() {
+        // Given
+        when(outboxEventRepository.claimBatch(any(), anyInt())).thenReturn(List.of());
+
+        // When
+        int sent = outboxDispatcher.dispatchBatch();
+
+        // Then
+        assertEquals(0, sent);
+        verifyNoInteractions(redisTemplate);
+    }
+}
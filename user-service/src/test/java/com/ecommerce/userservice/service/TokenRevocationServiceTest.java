@@ -0,0 +1,72 @@
+package com.ecommerce.userservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    private static final String CHANNEL = "token-revocations";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private Cursor<String> cursor;
+
+    @InjectMocks
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenRevocationService, "channel", CHANNEL);
+        ReflectionTestUtils.setField(tokenRevocationService, "expectedRevocations", 1000L);
+        ReflectionTestUtils.setField(tokenRevocationService, "falsePositiveRate", 0.001);
+        tokenRevocationService.init();
+    }
+
+    @Test
+    void rebuild_RevocationArrivingDuringScanSurvivesSwap() {
+        // Given: another node revokes a token while the scan is running
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        doAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            action.accept(TokenRevocationService.KEY_PREFIX + "scanned");
+            tokenRevocationService.onMessage(message("during-scan"), null);
+            return null;
+        }).when(cursor).forEachRemaining(any());
+        when(redisTemplate.hasKey(any())).thenReturn(true);
+
+        // When
+        tokenRevocationService.rebuild();
+
+        // Then
+        assertTrue(tokenRevocationService.isRevoked("scanned"));
+        assertTrue(tokenRevocationService.isRevoked("during-scan"));
+        assertFalse(tokenRevocationService.isRevoked("never-revoked"));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
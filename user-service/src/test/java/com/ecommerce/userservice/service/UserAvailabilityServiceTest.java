@@ -0,0 +1,92 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.repository.UserBulkRepository;
+import com.ecommerce.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserAvailabilityServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserBulkRepository userBulkRepository;
+
+    @InjectMocks
+    private UserAvailabilityService userAvailabilityService;
+
+    // Committed rows by id: username
+    private final TreeMap<Long, String> committed = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userAvailabilityService, "enabled", true);
+        ReflectionTestUtils.setField(userAvailabilityService, "expectedUsers", 1000L);
+        ReflectionTestUtils.setField(userAvailabilityService, "syncOverlapIds", 100L);
+        ReflectionTestUtils.setField(userAvailabilityService, "rebuildIntervalMillis", 3_600_000L);
+
+        when(userBulkRepository.scanIdentitiesAfter(anyLong(), anyInt(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            BiConsumer<String, String> handler = invocation.getArgument(2);
+            long lastId = afterId;
+            for (Map.Entry<Long, String> row : committed.tailMap(afterId, false).entrySet()) {
+                if (limit-- == 0) {
+                    break;
+                }
+                handler.accept(row.getValue(), row.getValue() + "@example.com");
+                lastId = row.getKey();
+            }
+            return lastId;
+        });
+    }
+
+    @Test
+    void sync_PicksUpRowCommittedBelowLastSeenId() {
+        // Given: id 2 was assigned but its transaction had not committed during warm-up
+        committed.put(1L, "alice");
+        committed.put(3L, "carol");
+        userAvailabilityService.warmUp();
+        assertTrue(userAvailabilityService.isUsernameAvailable("bob"));
+
+        // When
+        committed.put(2L, "bob");
+        userAvailabilityService.sync();
+
+        // Then: the filter no longer rules bob out, so the database decides
+        when(userRepository.existsByUsername("bob")).thenReturn(true);
+        assertFalse(userAvailabilityService.isUsernameAvailable("bob"));
+    }
+
+    @Test
+    void sync_RebuildsOnceIntervalHasPassed() {
+        // Given
+        committed.put(1L, "alice");
+        userAvailabilityService.warmUp();
+        ReflectionTestUtils.setField(userAvailabilityService, "rebuildIntervalMillis", 0L);
+
+        // When
+        userAvailabilityService.sync();
+
+        // Then
+        verify(userBulkRepository, times(2)).scanIdentitiesAfter(eq(0L), anyInt(), any());
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.ProfileView;
+import com.ecommerce.userservice.dto.UserSearchCriteria;
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.repository.UserBulkRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectoryServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 1, 15, 9, 30, 0, 123456000);
+
+    @Mock
+    private UserBulkRepository userBulkRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private UserDirectoryService userDirectoryService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userDirectoryService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(userDirectoryService, "fetchSize", 2);
+    }
+
+    @Test
+    void writeUsers_PageWithMoreRowsEmitsCursorOfLastWrittenUser() throws Exception {
+        // Given
+        streamUsers(3);
+        UserSearchCriteria criteria = new UserSearchCriteria(null, null, null, null, null, null, null, 2);
+
+        // When
+        JsonNode result = write(criteria);
+
+        // Then
+        assertEquals(2, result.get("users").size());
+        assertEquals(2, result.get("users").get(1).get("id").asLong());
+        UserSearchCriteria next = criteria.after(result.get("nextCursor").asText());
+        assertEquals(2L, next.afterId());
+        assertEquals(CREATED, next.afterCreatedAt());
+    }
+
+    @Test
+    void writeUsers_LastPageHasNoCursor() throws Exception {
+        // Given
+        streamUsers(2);
+
+        // When
+        JsonNode result = write(new UserSearchCriteria(User.Role.USER, true, null, null, "test", null, null, 2));
+
+        // Then
+        assertEquals(2, result.get("users").size());
+        assertFalse(result.has("nextCursor"));
+    }
+
+    @Test
+    void writeUsers_UnboundedExportWritesEveryRowWithoutPassword() throws Exception {
+        // Given
+        streamUsers(5);
+
+        // When
+        JsonNode result = write(new UserSearchCriteria(null, null, null, null, null, null, null, null));
+
+        // Then
+        assertEquals(5, result.get("users").size());
+        assertFalse(result.get("users").get(0).has("password"));
+        assertFalse(result.has("nextCursor"));
+    }
+
+    @Test
+    void after_RejectsMalformedCursor() {
+        // Given
+        UserSearchCriteria criteria = new UserSearchCriteria(null, null, null, null, null, null, null, 10);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> criteria.after("not-a-cursor"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamUsers(int count) {
+        doAnswer(invocation -> {
+            Consumer<ProfileView> handler = invocation.getArgument(2);
+            for (long id = 1; id <= count; id++) {
+                handler.accept(new ProfileView(id, "user" + id, "user" + id + "@example.com", "Test", "User",
+                        null, null, User.Role.USER, true, CREATED, CREATED));
+            }
+            return null;
+        }).when(userBulkRepository).scanUsers(any(), anyInt(), any(Consumer.class));
+    }
+
+    private JsonNode write(UserSearchCriteria criteria) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        userDirectoryService.writeUsers(criteria, output);
+        return objectMapper.readTree(output.toByteArray());
+    }
+}
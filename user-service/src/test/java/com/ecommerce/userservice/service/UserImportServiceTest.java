@@ -0,0 +1,183 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.UserImportReportDto;
+import com.ecommerce.userservice.model.User;
+import com.ecommerce.userservice.model.UserImportCheckpoint;
+import com.ecommerce.userservice.repository.UserBulkRepository;
+import com.ecommerce.userservice.repository.UserImportCheckpointRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    private static final String BCRYPT_HASH = "$2a$10$" + "a".repeat(53);
+
+    @Mock
+    private UserBulkRepository userBulkRepository;
+
+    @Mock
+    private UserImportCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private UserImportService userImportService;
+
+    private ThreadPoolTaskExecutor importExecutor;
+    private List<User> insertedUsers;
+
+    @BeforeEach
+    void setUp() {
+        importExecutor = new ThreadPoolTaskExecutor();
+        importExecutor.setCorePoolSize(2);
+        importExecutor.setMaxPoolSize(2);
+        importExecutor.initialize();
+
+        ReflectionTestUtils.setField(userImportService, "importExecutor", importExecutor);
+        ReflectionTestUtils.setField(userImportService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(userImportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(userImportService, "batchSize", 2);
+
+        insertedUsers = new ArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        importExecutor.shutdown();
+    }
+
+    @Test
+    void importUsers_Csv_ValidatesHashesAndReportsRejects() throws Exception {
+        // Given
+        String csv = """
+                username,email,password,password_hash,first_name,last_name,role
+                alice,alice@example.com,secret1,,Alice,Smith,
+                bob,not-an-email,secret2,,Bob,Jones,
+                carol,carol@example.com,,%s,Carol,"Lee, Jr",admin
+                alice,alice2@example.com,secret3,,Alice,Other,
+                dave,dave@example.com,secret4,,Dave,Brown,superuser
+                """.formatted(BCRYPT_HASH);
+        ReflectionTestUtils.setField(userImportService, "batchSize", 10);
+        when(checkpointRepository.findById("job-1")).thenReturn(Optional.empty());
+        when(passwordEncoder.encode("secret1")).thenReturn("{bcrypt}hashed");
+        when(userBulkRepository.insertIgnoringConflicts(any())).thenAnswer(invocation -> insertAll(invocation.getArgument(0)));
+
+        // When
+        UserImportReportDto report = userImportService.importUsers("job-1", UserImportService.Format.CSV, stream(csv));
+
+        // Then
+        assertTrue(report.isCompleted());
+        assertEquals(5, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(3, report.getRejected());
+        assertEquals(List.of(2L, 4L, 5L), report.getRejects().stream().map(UserImportReportDto.RejectedRow::getRow).toList());
+        assertEquals("Email should be valid", report.getRejects().get(0).getReason());
+        assertEquals("Unknown role: superuser", report.getRejects().get(2).getReason());
+
+        assertEquals("{bcrypt}hashed", insertedUsers.get(0).getPassword());
+        assertEquals(BCRYPT_HASH, insertedUsers.get(1).getPassword());
+        assertEquals("Lee, Jr", insertedUsers.get(1).getLastName());
+        assertEquals(User.Role.ADMIN, insertedUsers.get(1).getRole());
+        verify(passwordEncoder, times(1)).encode(any());
+    }
+
+    @Test
+    void importUsers_ResumesAfterCheckpointAndRejectsConflicts() throws Exception {
+        // Given
+        UserImportCheckpoint checkpoint = new UserImportCheckpoint("job-2");
+        checkpoint.setRowNumber(1);
+        checkpoint.setImported(1);
+        String jsonl = """
+                {"username":"alice","email":"alice@example.com","passwordHash":"%1$s","firstName":"Alice","lastName":"Smith"}
+                {"username":"bob","email":"bob@example.com","passwordHash":"%1$s","firstName":"Bob","lastName":"Jones"}
+
+                {"username":"erin","email":"erin@example.com","passwordHash":"%1$s","firstName":"Erin","lastName":"Hall"}
+                {not json
+                """.formatted(BCRYPT_HASH);
+        when(checkpointRepository.findById("job-2")).thenReturn(Optional.of(checkpoint));
+        when(userBulkRepository.insertIgnoringConflicts(any())).thenAnswer(invocation -> {
+            // bob already exists
+            Set<String> inserted = insertAll(invocation.getArgument(0));
+            inserted.remove("bob");
+            return inserted;
+        });
+
+        // When
+        UserImportReportDto report = userImportService.importUsers("job-2", UserImportService.Format.JSONL, stream(jsonl));
+
+        // Then
+        assertEquals(1, report.getResumedAfterRow());
+        assertEquals(3, report.getRowsRead());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals("Username or email already exists", report.getRejects().get(0).getReason());
+        assertTrue(report.getRejects().get(1).getReason().startsWith("Malformed JSON"));
+        assertEquals(List.of("bob", "erin"), insertedUsers.stream().map(User::getUsername).toList());
+
+        ArgumentCaptor<UserImportCheckpoint> saved = ArgumentCaptor.forClass(UserImportCheckpoint.class);
+        verify(checkpointRepository, atLeastOnce()).save(saved.capture());
+        assertEquals(5, saved.getValue().getRowNumber());
+        assertEquals(2, saved.getValue().getImported());
+        assertEquals(2, saved.getValue().getRejected());
+        assertTrue(saved.getValue().isCompleted());
+        verify(passwordEncoder, never()).encode(any());
+    }
+
+    @Test
+    void importUsers_CompletedJob_IsNotRerun() throws Exception {
+        // Given
+        UserImportCheckpoint checkpoint = new UserImportCheckpoint("job-3");
+        checkpoint.setRowNumber(10);
+        checkpoint.setCompleted(true);
+        when(checkpointRepository.findById("job-3")).thenReturn(Optional.of(checkpoint));
+
+        // When
+        UserImportReportDto report = userImportService.importUsers("job-3", UserImportService.Format.CSV, stream("username\n"));
+
+        // Then
+        assertTrue(report.isCompleted());
+        assertEquals(0, report.getRowsRead());
+        verifyNoInteractions(userBulkRepository);
+    }
+
+    private Set<String> insertAll(List<User> users) {
+        insertedUsers.addAll(users);
+        Set<String> usernames = new HashSet<>();
+        users.forEach(user -> usernames.add(user.getUsername()));
+        return usernames;
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
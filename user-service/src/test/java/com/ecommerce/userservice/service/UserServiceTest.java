@@ -1,24 +1,51 @@
 package com.ecommerce.userservice.service;
 
+import com.ecommerce.userservice.config.ReadYourWritesTracker;
 import com.ecommerce.userservice.dto.AuthResponseDto;
+import com.ecommerce.userservice.dto.AuthView;
 import com.ecommerce.userservice.dto.LoginRequestDto;
+import com.ecommerce.userservice.dto.ProfileView;
+import com.ecommerce.userservice.dto.PublicUserView;
+import com.ecommerce.userservice.dto.TokenIntrospectionDto;
+import com.ecommerce.userservice.dto.UserEventDto;
 import com.ecommerce.userservice.dto.UserRegistrationDto;
+import com.ecommerce.userservice.dto.UserSnapshot;
+import com.ecommerce.userservice.dto.UserVersion;
 import com.ecommerce.userservice.model.User;
 import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.util.SingleFlight;
+import io.jsonwebtoken.MalformedJwtException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.userdetails.UserDetails;
-
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +63,27 @@ class UserServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @Mock
+    private UserAvailabilityService userAvailabilityService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ReadYourWritesTracker readYourWritesTracker;
+
     @InjectMocks
     private UserService userService;
 
@@ -71,10 +119,8 @@ class UserServiceTest {
     @Test
     void registerUser_Success() {
         // Given
-        when(userRepository.existsByEmail(registrationDto.getEmail())).thenReturn(false);
-        when(userRepository.existsByUsername(registrationDto.getUsername())).thenReturn(false);
         when(passwordEncoder.encode(registrationDto.getPassword())).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
         when(jwtService.generateToken(any(User.class))).thenReturn("jwt-token");
 
         // When
@@ -87,35 +133,66 @@ class UserServiceTest {
         assertEquals(testUser.getUsername(), result.getUsername());
         assertEquals(testUser.getEmail(), result.getEmail());
 
-        verify(userRepository).existsByEmail(registrationDto.getEmail());
-        verify(userRepository).existsByUsername(registrationDto.getUsername());
         verify(passwordEncoder).encode(registrationDto.getPassword());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByUsername(any());
+        verify(userRepository, never()).existsByEmail(any());
         verify(jwtService).generateToken(any(User.class));
+        verify(userAvailabilityService).registered(testUser.getUsername(), testUser.getEmail());
+        verify(outboxService).record(UserEventDto.Type.USER_REGISTERED, testUser);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void registerUser_RefreshTokenFailureStillReturnsAccessToken() {
+        // Given: the user row has committed by the time Redis fails
+        when(passwordEncoder.encode(registrationDto.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
+        when(jwtService.generateToken(any(User.class))).thenReturn("jwt-token");
+        when(refreshTokenService.isEnabled()).thenReturn(true);
+        when(refreshTokenService.issue("testuser")).thenThrow(new RuntimeException("Redis connection refused"));
+
+        // When
+        AuthResponseDto result = userService.registerUser(registrationDto);
+
+        // Then
+        assertEquals("jwt-token", result.getToken());
+        assertNull(result.getRefreshToken());
+        verify(transactionManager).commit(any());
     }
 
     @Test
     void registerUser_EmailAlreadyExists() {
         // Given
-        when(userRepository.existsByEmail(registrationDto.getEmail())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateKey(User.EMAIL_CONSTRAINT, "email"));
 
         // When & Then
-        assertThrows(RuntimeException.class, () -> userService.registerUser(registrationDto));
-        verify(userRepository).existsByEmail(registrationDto.getEmail());
-        verify(userRepository, never()).save(any(User.class));
+        RuntimeException e = assertThrows(RuntimeException.class, () -> userService.registerUser(registrationDto));
+        assertEquals("Email already exists", e.getMessage());
+        verify(jwtService, never()).generateToken(any(User.class));
+        verify(outboxService, never()).record(any(), any());
+        verify(transactionManager).rollback(any());
     }
 
     @Test
     void registerUser_UsernameAlreadyExists() {
         // Given
-        when(userRepository.existsByEmail(registrationDto.getEmail())).thenReturn(false);
-        when(userRepository.existsByUsername(registrationDto.getUsername())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateKey(User.USERNAME_CONSTRAINT, "username"));
 
         // When & Then
-        assertThrows(RuntimeException.class, () -> userService.registerUser(registrationDto));
-        verify(userRepository).existsByEmail(registrationDto.getEmail());
-        verify(userRepository).existsByUsername(registrationDto.getUsername());
-        verify(userRepository, never()).save(any(User.class));
+        RuntimeException e = assertThrows(RuntimeException.class, () -> userService.registerUser(registrationDto));
+        assertEquals("Username already exists", e.getMessage());
+        verify(jwtService, never()).generateToken(any(User.class));
+    }
+
+    @Test
+    void registerUser_UnnamedLegacyConstraintClassifiedFromDetail() {
+        // Given
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateKey("uk_6dotkott2kjsp8vw4d0m25fb7", "email"));
+
+        // When & Then
+        RuntimeException e = assertThrows(RuntimeException.class, () -> userService.registerUser(registrationDto));
+        assertEquals("Email already exists", e.getMessage());
     }
 
     @Test
@@ -140,6 +217,83 @@ class UserServiceTest {
         verify(jwtService).generateToken(any(UserDetails.class));
     }
 
+    @Test
+    void registerUserAsync_HashesOnPasswordHashingExecutor() {
+        // Given
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(userService, "passwordHashingExecutor", (Executor) queued::add);
+        when(passwordEncoder.encode(registrationDto.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
+        when(jwtService.generateToken(any(User.class))).thenReturn("jwt-token");
+
+        // When
+        CompletableFuture<AuthResponseDto> result = userService.registerUserAsync(registrationDto);
+
+        // Then
+        assertFalse(result.isDone());
+        verify(passwordEncoder, never()).encode(any());
+        queued.get(0).run();
+        assertEquals("jwt-token", result.join().getToken());
+    }
+
+    @Test
+    void loginUserAsync_FullHashingQueueFailsFast() {
+        // Given
+        ReflectionTestUtils.setField(userService, "passwordHashingExecutor", (Executor) task -> {
+            throw new RejectedExecutionException("Password hashing queue is full");
+        });
+
+        // When & Then
+        assertThrows(RejectedExecutionException.class, () -> userService.loginUserAsync(loginDto, "10.0.0.1"));
+        verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    void loginUserAsync_FullHashingQueueGivesBackLimiterTokens() {
+        // Given
+        ReflectionTestUtils.setField(userService, "passwordHashingExecutor", (Executor) task -> {
+            throw new RejectedExecutionException("Password hashing queue is full");
+        });
+
+        // When
+        assertThrows(RejectedExecutionException.class, () -> userService.loginUserAsync(loginDto, "10.0.0.1"));
+
+        // Then
+        verify(loginAttemptLimiter).onRejected(loginDto.getUsername(), "10.0.0.1");
+        verify(loginAttemptLimiter, never()).onSuccess(any());
+    }
+
+    @Test
+    void updatePassword_StoresUpgradedHash() {
+        // Given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        // When
+        UserDetails result = userService.updatePassword(testUser, "{argon2}upgraded-hash");
+
+        // Then
+        assertEquals("{argon2}upgraded-hash", result.getPassword());
+        verify(userRepository).save(testUser);
+    }
+
+    @Test
+    void loginUserAsync_ThrottledAttemptNeverReachesHashing() {
+        // Given
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(userService, "passwordHashingExecutor", (Executor) queued::add);
+        when(loginAttemptLimiter.tryAcquire(loginDto.getUsername(), "10.0.0.1")).thenReturn(30000L);
+
+        // When
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> userService.loginUserAsync(loginDto, "10.0.0.1"));
+
+        // Then
+        assertEquals(30, e.getRetryAfterSeconds());
+        assertTrue(queued.isEmpty());
+        verifyNoInteractions(authenticationManager, userRepository);
+    }
+
     @Test
     void loginUser_UserNotFound() {
         // Given
@@ -187,6 +341,123 @@ class UserServiceTest {
         verify(userRepository).findById(1L);
     }
 
+    @Test
+    void getUserByUsername_ServedByNaturalId() {
+        // Given
+        when(userRepository.findByNaturalId("testuser")).thenReturn(Optional.of(testUser));
+
+        // When
+        User result = userService.getUserByUsername("testuser");
+
+        // Then
+        assertSame(testUser, result);
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void loadUserByUsername_CaseVariantFallsBackToCaseInsensitiveQuery() {
+        // Given
+        when(userRepository.findByNaturalId("TestUser")).thenReturn(Optional.empty());
+        when(userRepository.findByUsername("TestUser")).thenReturn(Optional.of(testUser));
+
+        // When
+        UserDetails result = userService.loadUserByUsername("TestUser");
+
+        // Then
+        assertEquals("testuser", result.getUsername());
+        verify(userRepository).findByNaturalId("TestUser");
+    }
+
+    @Test
+    void loadUserByUsername_UnknownNameRememberedThenAnsweredWithoutQuery() {
+        // Given
+        UserSnapshotCache userSnapshotCache = mock(UserSnapshotCache.class);
+        ReflectionTestUtils.setField(userService, "userSnapshotCache", userSnapshotCache);
+        when(userRepository.findByNaturalId("ghost")).thenReturn(Optional.empty());
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("ghost"));
+        verify(userSnapshotCache).usernameMissing("ghost");
+
+        // When & Then: the next attempt finds the name already known to be missing
+        when(userSnapshotCache.isUsernameKnownMissing("ghost")).thenReturn(true);
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("ghost"));
+        verify(userRepository, times(1)).findByUsername("ghost");
+    }
+
+    @Test
+    void getUserById_SnapshotMissIsConfirmedOnPrimary() {
+        // Given: the replica has not caught up with a registration yet
+        UserSnapshotCache userSnapshotCache = mock(UserSnapshotCache.class);
+        ReflectionTestUtils.setField(userService, "userSnapshotCache", userSnapshotCache);
+        ReflectionTestUtils.setField(userService, "snapshotLoads", new SingleFlight<>(Duration.ofSeconds(1)));
+        when(userSnapshotCache.getById(eq(1L), any())).thenAnswer(invocation ->
+                invocation.<Supplier<Optional<UserSnapshot>>>getArgument(1).get());
+        when(userRepository.findById(1L)).thenReturn(Optional.empty(), Optional.of(testUser));
+
+        // When
+        User result = userService.getUserById(1L);
+
+        // Then
+        assertEquals("testuser", result.getUsername());
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()));
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    @Test
+    void getVersion_ReadsVersionColumnsOnly() {
+        // Given
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 1, 1, 12, 0, 0, 123456000);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(new UserVersion(1L, updatedAt)));
+
+        // When
+        UserVersion version = userService.getVersion(1L);
+
+        // Then
+        assertEquals(new UserVersion(1L, updatedAt).etag(), version.etag());
+        assertTrue(version.etag().startsWith("\"1-"));
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).findPublicViewById(any());
+    }
+
+    @Test
+    void userVersion_EtagChangesWithEveryUpdate() {
+        // Given
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+        UserVersion version = new UserVersion(1L, updatedAt);
+
+        // When & Then
+        assertEquals(version.etag(), new UserVersion(1L, updatedAt).etag());
+        assertNotEquals(version.etag(), new UserVersion(1L, updatedAt.plusNanos(1000)).etag());
+        assertNotEquals(version.etag(), new UserVersion(2L, updatedAt).etag());
+    }
+
+    @Test
+    void getPublicUser_ReadsProjectionOnly() {
+        // Given
+        when(userRepository.findPublicViewById(1L)).thenReturn(Optional.of(
+                new PublicUserView(1L, "testuser", "Test", "User", User.Role.USER, null)));
+
+        // When
+        PublicUserView result = userService.getPublicUser(1L);
+
+        // Then
+        assertEquals("testuser", result.username());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void profileView_FromUserOmitsPassword() {
+        // When
+        ProfileView view = ProfileView.from(testUser);
+
+        // Then
+        assertEquals(testUser.getEmail(), view.email());
+        assertEquals(User.Role.USER, view.role());
+        assertFalse(view.toString().contains(testUser.getPassword()));
+    }
+
     @Test
     void updateUserProfile_Success() {
         // Given
@@ -217,6 +488,8 @@ class UserServiceTest {
 
         verify(userRepository).findById(1L);
         verify(userRepository).save(any(User.class));
+        verify(outboxService).record(UserEventDto.Type.USER_UPDATED, updatedUser);
+        verify(readYourWritesTracker).recordWrite("testuser");
     }
 
     @Test
@@ -260,4 +533,156 @@ class UserServiceTest {
         assertFalse(result);
         verify(jwtService).validateToken(token);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void introspectToken_AnsweredFromClaimsWithoutRepository() {
+        // Given
+        String token = "valid-token";
+        when(jwtService.verify(token)).thenReturn(
+                new VerifiedToken("testuser", 1L, "USER", JwtService.TOKEN_VERSION, "jti-1", 0L));
+
+        // When
+        TokenIntrospectionDto result = userService.introspectToken(token);
+
+        // Then
+        assertTrue(result.isValid());
+        assertEquals(1L, result.getUserId());
+        assertEquals("testuser", result.getUsername());
+        assertEquals("USER", result.getRole());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void introspectToken_LegacyTokenFallsBackToRepository() {
+        // Given
+        String token = "legacy-token";
+        when(jwtService.verify(token)).thenReturn(new VerifiedToken("testuser", null, null, null, null, 0L));
+        when(userRepository.findAuthViewByUsername("testuser"))
+                .thenReturn(Optional.of(new AuthView(1L, "testuser", User.Role.USER, true)));
+
+        // When
+        TokenIntrospectionDto result = userService.introspectToken(token);
+
+        // Then
+        assertTrue(result.isValid());
+        assertEquals(testUser.getId(), result.getUserId());
+        assertEquals("USER", result.getRole());
+        verify(userRepository).findAuthViewByUsername("testuser");
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void introspectToken_StrictModeRejectsDisabledUser() {
+        // Given
+        ReflectionTestUtils.setField(userService, "strictIntrospection", true);
+        String token = "valid-token";
+        when(jwtService.verify(token)).thenReturn(
+                new VerifiedToken("testuser", 1L, "USER", JwtService.TOKEN_VERSION, "jti-1", 0L));
+        when(userRepository.findAuthViewByUsername("testuser"))
+                .thenReturn(Optional.of(new AuthView(1L, "testuser", User.Role.USER, false)));
+
+        // When
+        TokenIntrospectionDto result = userService.introspectToken(token);
+
+        // Then
+        assertFalse(result.isValid());
+        verify(userRepository).findAuthViewByUsername("testuser");
+    }
+
+    @Test
+    void introspectToken_InvalidToken() {
+        // Given
+        String token = "invalid-token";
+        when(jwtService.verify(token)).thenThrow(new MalformedJwtException("bad token"));
+
+        // When
+        TokenIntrospectionDto result = userService.introspectToken(token);
+
+        // Then
+        assertFalse(result.isValid());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void introspectTokens_PreservesOrderAcrossChunks() {
+        // Given
+        ReflectionTestUtils.setField(userService, "tokenIntrospectionExecutor", (Executor) Runnable::run);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String token = "token-" + i;
+            tokens.add(token);
+            when(jwtService.verify(token)).thenReturn(
+                    new VerifiedToken("user" + i, (long) i, "USER", JwtService.TOKEN_VERSION, "jti-" + i, 0L));
+        }
+
+        // When
+        List<TokenIntrospectionDto> results = userService.introspectTokens(tokens).stream()
+                .map(CompletableFuture::join)
+                .flatMap(List::stream)
+                .toList();
+
+        // Then
+        assertEquals(100, results.size());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(results.get(i).isValid());
+            assertEquals("user" + i, results.get(i).getUsername());
+        }
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void revokeToken_RevokesByIdUntilExpiry() {
+        // Given
+        String token = "valid-token";
+        Date expiresAt = new Date((System.currentTimeMillis() / 1000 + 60) * 1000);
+        when(jwtService.verify(token)).thenReturn(
+                new VerifiedToken("testuser", 1L, "USER", JwtService.TOKEN_VERSION, "jti-1", expiresAt.getTime()));
+
+        // When
+        userService.revokeToken(token);
+
+        // Then
+        verify(tokenRevocationService).revoke("jti-1", expiresAt);
+    }
+
+    @Test
+    void refreshToken_IssuesNewPairWithoutAuthenticating() {
+        // Given
+        when(refreshTokenService.rotate("family.old-secret"))
+                .thenReturn(new RefreshTokenService.Rotation("testuser", "family.new-secret"));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(jwtService.generateToken(testUser)).thenReturn("jwt-token");
+        when(jwtService.getExpirationMillis()).thenReturn(900000L);
+
+        // When
+        AuthResponseDto result = userService.refreshToken("family.old-secret");
+
+        // Then
+        assertEquals("jwt-token", result.getToken());
+        assertEquals("family.new-secret", result.getRefreshToken());
+        assertEquals(testUser.getId(), result.getUserId());
+        verifyNoInteractions(authenticationManager, passwordEncoder);
+    }
+
+    @Test
+    void refreshToken_DisabledUserEndsSession() {
+        // Given
+        testUser.setEnabled(false);
+        when(refreshTokenService.rotate("family.old-secret"))
+                .thenReturn(new RefreshTokenService.Rotation("testuser", "family.new-secret"));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> userService.refreshToken("family.old-secret"));
+        verify(refreshTokenService).revoke("family.new-secret");
+        verify(jwtService, never()).generateToken(any(UserDetails.class));
+    }
+
+    // Shaped like the exception Spring translates a PostgreSQL unique_violation into
+    private static DataIntegrityViolationException duplicateKey(String constraint, String column) {
+        SQLException sqlException = new SQLException("ERROR: duplicate key value violates unique constraint \""
+                + constraint + "\"\n  Detail: Key (" + column + ")=(taken) already exists.", "23505");
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sqlException, constraint));
+    }
+}
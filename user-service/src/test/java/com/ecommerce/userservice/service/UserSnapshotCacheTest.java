@@ -0,0 +1,201 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.UserSnapshot;
+import com.ecommerce.userservice.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSnapshotCacheTest {
+
+    private static final String CHANNEL = "user-invalidations";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @InjectMocks
+    private UserSnapshotCache userSnapshotCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private UserSnapshot snapshot;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userSnapshotCache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(userSnapshotCache, "channel", CHANNEL);
+        ReflectionTestUtils.setField(userSnapshotCache, "localMaxSize", 100L);
+        ReflectionTestUtils.setField(userSnapshotCache, "localTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(userSnapshotCache, "sharedTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(userSnapshotCache, "negativeTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(userSnapshotCache, "negativeMaxMemory", DataSize.ofKilobytes(1));
+        userSnapshotCache.init();
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        snapshot = new UserSnapshot(1L, "testuser", "test@example.com", "Test", "User", null, null,
+                User.Role.USER, true, true, true, true, LocalDateTime.of(2026, 1, 1, 12, 0), null);
+    }
+
+    @Test
+    void getByUsername_LoadsOnceThenServesFromLocalTier() {
+        // When
+        userSnapshotCache.getByUsername("testuser", loader());
+        Optional<UserSnapshot> result = userSnapshotCache.getByUsername("TestUser", loader());
+
+        // Then
+        assertEquals(Optional.of(snapshot), result);
+        assertEquals(1, loads.get());
+        verify(valueOperations, times(1)).get(anyString());
+        verify(valueOperations).setIfAbsent(eq("user-snapshot:id:1"), anyString(), any(Duration.class));
+        verify(valueOperations).setIfAbsent(eq("user-snapshot:username:testuser"), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void getById_SharedTierHitSkipsLoader() throws Exception {
+        // Given
+        when(valueOperations.get("user-snapshot:id:1")).thenReturn(objectMapper.writeValueAsString(snapshot));
+
+        // When
+        Optional<UserSnapshot> result = userSnapshotCache.getById(1L, loader());
+
+        // Then
+        assertEquals(Optional.of(snapshot), result);
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void getById_RedisFailureFallsBackToLoader() {
+        // Given
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        // When
+        Optional<UserSnapshot> result = userSnapshotCache.getById(1L, loader());
+
+        // Then
+        assertEquals(Optional.of(snapshot), result);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void saved_OverwritesSharedTierAndBroadcasts() {
+        // When
+        userSnapshotCache.saved(snapshot);
+
+        // Then
+        verify(valueOperations).set(eq("user-snapshot:id:1"), anyString(), any(Duration.class));
+        verify(valueOperations).set(eq("user-snapshot:username:testuser"), anyString(), any(Duration.class));
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), anyString());
+        assertEquals(Optional.of(snapshot), userSnapshotCache.getById(1L, loader()));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void onMessage_OtherNodeSaveEvictsLocalTierButOwnDoesNot() {
+        // Given
+        userSnapshotCache.saved(snapshot);
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), published.capture());
+
+        // When: our own broadcast comes back
+        userSnapshotCache.onMessage(message(published.getValue()), null);
+
+        // Then
+        userSnapshotCache.getById(1L, loader());
+        assertEquals(0, loads.get());
+
+        // When: another node saved the same user
+        userSnapshotCache.onMessage(message("other-node|1|testuser|" + System.currentTimeMillis()), null);
+
+        // Then
+        userSnapshotCache.getByUsername("testuser", loader());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getByUsername_UnknownUserIsAnsweredFromMemoryUntilSaved() {
+        // Given
+        Supplier<Optional<UserSnapshot>> notFound = () -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        };
+        userSnapshotCache.getByUsername("testuser", notFound);
+
+        // When
+        Optional<UserSnapshot> repeated = userSnapshotCache.getByUsername("TESTUSER", notFound);
+
+        // Then
+        assertTrue(repeated.isEmpty());
+        assertTrue(userSnapshotCache.isUsernameKnownMissing("testuser"));
+        assertEquals(1, loads.get());
+        verify(valueOperations, times(1)).get(anyString());
+
+        // When: another node registers the name
+        userSnapshotCache.onMessage(message("other-node|1|testuser|" + System.currentTimeMillis()), null);
+
+        // Then
+        assertFalse(userSnapshotCache.isUsernameKnownMissing("testuser"));
+        assertEquals(Optional.of(snapshot), userSnapshotCache.getByUsername("testuser", loader()));
+    }
+
+    @Test
+    void usernameMissing_BoundedByMemoryRatherThanCount() {
+        // When: far more distinct names than a 1 KB budget can hold, plus one oversized name
+        for (int i = 0; i < 100; i++) {
+            userSnapshotCache.usernameMissing("probe" + i);
+        }
+        userSnapshotCache.usernameMissing("x".repeat(1000));
+
+        // Then
+        Cache<?, ?> missing = (Cache<?, ?>) ReflectionTestUtils.getField(userSnapshotCache, "missing");
+        missing.cleanUp();
+        long weight = missing.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertTrue(weight <= 1024, "weighted size " + weight);
+        assertTrue(missing.estimatedSize() < 100);
+        assertFalse(userSnapshotCache.isUsernameKnownMissing("x".repeat(1000)));
+    }
+
+    private Supplier<Optional<UserSnapshot>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return Optional.of(snapshot);
+        };
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.userservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_NoFalseNegatives() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        String[] values = new String[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = UUID.randomUUID().toString();
+            filter.put(values[i]);
+        }
+
+        // When & Then
+        for (String value : values) {
+            assertTrue(filter.mightContain(value));
+        }
+        assertEquals(10_000, filter.getInsertions());
+    }
+
+    @Test
+    void mightContain_FalsePositiveRateStaysNearTarget() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("active-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+    }
+
+    @Test
+    void mightContain_SingleHashUsesEvenAndOddBits() {
+        // Given: one hash function, so every value sets exactly the bit its first hash picks
+        BloomFilter filter = new BloomFilter(1_000, 0.5);
+        assertEquals(1, filter.getHashCount());
+        for (int i = 0; i < 1_000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("active-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then: about 49% when all bits are reachable, about 74% if only odd bits were
+        assertTrue(falsePositives < 60_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void mightContain_EmptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.001);
+        assertFalse(filter.mightContain("anything"));
+    }
+}
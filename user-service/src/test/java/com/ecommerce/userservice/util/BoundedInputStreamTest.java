@@ -0,0 +1,40 @@
+package com.ecommerce.userservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedInputStreamTest {
+
+    @Test
+    void read_AllowsInputUpToLimit() throws IOException {
+        // Given
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(new byte[10]), 10);
+
+        // When & Then
+        assertEquals(10, in.readAllBytes().length);
+    }
+
+    @Test
+    void read_FailsPastLimitWithoutContentLength() {
+        // Given
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(new byte[11]), 10);
+
+        // When & Then
+        assertThrows(BoundedInputStream.LimitExceededException.class, in::readAllBytes);
+    }
+
+    @Test
+    void skip_CountsTowardsLimit() throws IOException {
+        // Given
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(new byte[20]), 10);
+        in.skip(8);
+
+        // When & Then
+        assertThrows(BoundedInputStream.LimitExceededException.class, () -> in.read(new byte[4]));
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.userservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void next_ParsesQuotedFieldsAndLineEndings() throws IOException {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("a,\"b,c\",\"say \"\"hi\"\"\"\r\n\"multi\nline\",,x\n"));
+
+        // When & Then
+        assertEquals(List.of("a", "b,c", "say \"hi\""), reader.next());
+        assertEquals(List.of("multi\nline", "", "x"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_LastRecordWithoutNewline() throws IOException {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("a,b\nc,d"));
+
+        // When & Then
+        assertEquals(List.of("a", "b"), reader.next());
+        assertEquals(List.of("c", "d"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_UnterminatedQuote_Throws() {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("a,\"b\n"));
+
+        // When & Then
+        assertThrows(IOException.class, reader::next);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.userservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CuckooFilterTest {
+
+    @Test
+    void mightContain_NoFalseNegativesNearCapacity() {
+        // Given
+        CuckooFilter filter = new CuckooFilter(100_000);
+        int inserted = (int) (100_000 * 0.9);
+
+        // When
+        for (int i = 0; i < inserted; i++) {
+            assertTrue(filter.put("user-" + i));
+        }
+
+        // Then
+        assertFalse(filter.isSaturated());
+        assertEquals(inserted, filter.size());
+        for (int i = 0; i < inserted; i++) {
+            assertTrue(filter.mightContain("user-" + i), "lost user-" + i);
+        }
+    }
+
+    @Test
+    void mightContain_FalsePositiveRateWithinExpectation() {
+        // Given
+        CuckooFilter filter = new CuckooFilter(50_000);
+        for (int i = 0; i < 45_000; i++) {
+            filter.put("user-" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 200_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        double observed = falsePositives / 200_000.0;
+        assertTrue(observed < filter.expectedFalsePositiveRate() * 2 + 0.0001,
+                "observed " + observed + " expected " + filter.expectedFalsePositiveRate());
+    }
+
+    @Test
+    void remove_ForgetsValue() {
+        // Given
+        CuckooFilter filter = new CuckooFilter(1000);
+        filter.put("alice");
+        filter.put("bob");
+
+        // When
+        boolean removed = filter.remove("alice");
+
+        // Then
+        assertTrue(removed);
+        assertFalse(filter.mightContain("alice"));
+        assertTrue(filter.mightContain("bob"));
+        assertEquals(1, filter.size());
+        assertFalse(filter.remove("carol"));
+    }
+
+    @Test
+    void put_PastCapacity_SaturatesInsteadOfLosingValues() {
+        // Given
+        CuckooFilter filter = new CuckooFilter(8);
+
+        // When
+        int i = 0;
+        while (filter.put("user-" + i)) {
+            i++;
+        }
+
+        // Then
+        assertTrue(filter.isSaturated());
+        assertTrue(filter.mightContain("never-added"));
+        assertEquals(1.0, filter.expectedFalsePositiveRate());
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.userservice.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_ConcurrentCallersShareOneLoad() throws Exception {
+        // Given
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<String> leader = executor.submit(() -> flight.execute("user", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "value";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            waiters.add(executor.submit(() -> flight.execute("user", () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+        waitFor(() -> flight.coalesced() == 5);
+        release.countDown();
+
+        // Then
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> waiter : waiters) {
+            assertEquals("value", waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.leaders());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void execute_WaiterTimesOutWithoutAffectingLoad() throws Exception {
+        // Given
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flight.execute("user", () -> {
+            loading.countDown();
+            await(release);
+            return "value";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> flight.execute("user", () -> "other"));
+        assertEquals(1, flight.timeouts());
+        release.countDown();
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_FailureReachesCallerAndFreesKey() {
+        // Given
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofSeconds(1));
+
+        // When & Then
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> flight.execute("user", () -> { throw new IllegalStateException("database down"); }));
+        assertEquals("database down", e.getMessage());
+        assertEquals("value", flight.execute("user", () -> "value"));
+        assertEquals(0, flight.inFlight());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
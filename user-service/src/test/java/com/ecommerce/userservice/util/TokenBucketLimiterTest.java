@@ -0,0 +1,123 @@
+package com.ecommerce.userservice.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void tryAcquire_AllowsBurstThenReportsWait() {
+        // Given
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 1000, 100, 100, NOW);
+
+        // When & Then
+        assertEquals(0, limiter.tryAcquire("user", NOW));
+        assertEquals(0, limiter.tryAcquire("user", NOW));
+        assertEquals(0, limiter.tryAcquire("user", NOW));
+        assertEquals(1000, limiter.tryAcquire("user", NOW));
+        assertEquals(400, limiter.tryAcquire("user", NOW + 600));
+        assertEquals(0, limiter.tryAcquire("other", NOW));
+    }
+
+    @Test
+    void tryAcquire_FrequentCallsStillRefill() {
+        // Given
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1000, 100, 100, NOW);
+        assertEquals(0, limiter.tryAcquire("user", NOW));
+
+        // When
+        for (long t = NOW + 1; t < NOW + 1000; t += 3) {
+            assertTrue(limiter.tryAcquire("user", t) > 0);
+        }
+
+        // Then
+        assertEquals(0, limiter.tryAcquire("user", NOW + 1001));
+    }
+
+    @Test
+    void release_ReturnsTokenUpToCapacity() {
+        // Given
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 60000, 100, 100, NOW);
+        assertEquals(0, limiter.tryAcquire("user", NOW));
+
+        // When
+        limiter.release("user", NOW);
+        limiter.release("user", NOW);
+
+        // Then
+        assertEquals(0, limiter.tryAcquire("user", NOW));
+        assertTrue(limiter.tryAcquire("user", NOW) > 0);
+    }
+
+    @Test
+    void expire_DropsBucketsOnceFullAgain() {
+        // Given
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 1000, 100, 100, NOW);
+        limiter.tryAcquire("user", NOW);
+        limiter.tryAcquire("user", NOW + 1500);
+
+        // When & Then
+        limiter.expire(NOW + 2000);
+        assertEquals(1, limiter.size());
+        limiter.expire(NOW + 2600);
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    void tryAcquire_SaturatedLimiterStillLimitsNewKeys() {
+        // Given
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 60000, 1, 100, NOW);
+        limiter.tryAcquire("first", NOW);
+
+        // When & Then
+        assertEquals(0, limiter.tryAcquire("second", NOW));
+        assertTrue(limiter.tryAcquire("second", NOW) > 0);
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void tryAcquire_KeySprayEvictsOneOffKeysNotDrainedTarget() {
+        // Given
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 60000, 4, 100, NOW);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("target", NOW));
+        }
+
+        // When: far more distinct keys than can be tracked, one attempt each
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.tryAcquire("spray" + i, NOW));
+        }
+
+        // Then
+        assertTrue(limiter.tryAcquire("target", NOW) > 0);
+        assertTrue(limiter.size() <= 4);
+    }
+
+    @Test
+    void tryAcquire_EvictionReachesKeysAnywhereInTable() {
+        // Given: a full limiter of barely used keys, the first candidates for eviction
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 60000, 64, 100, NOW);
+        for (int i = 0; i < 64; i++) {
+            limiter.tryAcquire("resident" + i, NOW);
+        }
+
+        // When: drained keys keep taking their place
+        for (int i = 0; i < 64 * 4; i++) {
+            for (int attempt = 0; attempt < 3; attempt++) {
+                limiter.tryAcquire("drained" + i, NOW);
+            }
+        }
+
+        // Then: a sample always taken from the same bins would never reach the residents elsewhere
+        Map<?, ?> buckets = (Map<?, ?>) ReflectionTestUtils.getField(limiter, "buckets");
+        long survivors = IntStream.range(0, 64).filter(i -> buckets.containsKey("resident" + i)).count();
+        assertEquals(0, survivors);
+    }
+}